@@ -10,11 +10,23 @@ import com.martminds.model.common.Address;
 import com.martminds.model.payment.Payment;
 import com.martminds.enums.UserRole;
 import com.martminds.enums.PaymentMethod;
+import com.martminds.server.CommandDispatcher;
+import com.martminds.server.CommandServer;
 import com.martminds.service.*;
 import com.martminds.util.Session;
 import com.martminds.util.Input;
+import com.martminds.util.FileHandler;
+import com.martminds.util.PersistenceScheduler;
 import com.martminds.util.RandomGenerator;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -36,14 +48,66 @@ public class Main {
 	public static void main(String[] args) {
 		System.out.println("Welcome to MartMinds!");
 
-		com.martminds.util.FileHandler.ensureDataDirectoryExists();
+		FileHandler.ensureDataDirectoryExists();
+		List<String> arguments = Arrays.asList(args);
+		if (arguments.contains("--binary-snapshots")) {
+			FileHandler.setBinarySnapshots(true);
+		}
+
+		int dispatchIndex = arguments.indexOf("--dispatch-window");
+		if (dispatchIndex >= 0 && dispatchIndex + 1 < args.length) {
+			startBatchDispatch(args[dispatchIndex + 1]);
+		}
+
+		int serveIndex = arguments.indexOf("--serve");
+		int scriptIndex = arguments.indexOf("--script");
+		if (serveIndex >= 0 && serveIndex + 1 < args.length) {
+			serve(args[serveIndex + 1]);
+		} else if (scriptIndex >= 0 && scriptIndex + 1 < args.length) {
+			runScript(args[scriptIndex + 1]);
+		} else {
+			initialize();
+			run();
+		}
 
-		initialize();
-		run();
+		PersistenceScheduler.getInstance().shutdown();
 
 		System.out.println("\nThank you for using MartMinds!");
 	}
 
+	private static void startBatchDispatch(String windowArg) {
+		try {
+			DispatchService.getInstance().start(Long.parseLong(windowArg));
+		} catch (IllegalArgumentException e) {
+			System.out.println("Invalid dispatch window: " + windowArg);
+		}
+	}
+
+	private static void serve(String portArg) {
+		try {
+			CommandServer server = new CommandServer(Integer.parseInt(portArg));
+			server.start();
+			System.out.println("Serving commands on port " + server.getPort());
+			server.awaitTermination();
+		} catch (NumberFormatException e) {
+			System.out.println("Invalid port: " + portArg);
+		} catch (IOException e) {
+			System.out.println("Failed to start server: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void runScript(String scriptFile) {
+		try (BufferedReader in = Files.newBufferedReader(Paths.get(scriptFile), StandardCharsets.UTF_8)) {
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+			new CommandDispatcher().serve(in, out);
+			out.flush();
+		} catch (IOException e) {
+			System.out.println("Failed to run script: " + e.getMessage());
+		}
+	}
+
 	private static void initialize() {
 		authController = new AuthController();
 		productController = new ProductController();
@@ -252,8 +316,9 @@ public class Main {
 		try {
 			User currentUser = Session.getInstance().getCurrentUser();
 			PaymentMethod method = paymentView.selectPaymentMethod(currentUser);
+			double checkoutTotal = orderController.getCheckoutTotal(order);
 
-			if (!paymentView.confirmPayment(order.getTotalPrice(), method)) {
+			if (!paymentView.confirmPayment(checkoutTotal, method)) {
 				menuView.displayMessage("Payment cancelled.");
 				menuView.pressEnterToContinue();
 				return;
@@ -278,7 +343,7 @@ public class Main {
 			Payment payment = paymentController.createPayment(
 					Session.getInstance().getCurrentUserId(),
 					order.getOrderId(),
-					order.getTotalPrice(),
+					checkoutTotal,
 					method,
 					paymentDetails);
 
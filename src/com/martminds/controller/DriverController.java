@@ -1,13 +1,16 @@
 package com.martminds.controller;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.martminds.enums.OrderStatus;
 import com.martminds.exception.InvalidOrderException;
 import com.martminds.model.order.Order;
 import com.martminds.model.user.Driver;
 import com.martminds.model.user.User;
+import com.martminds.service.DriverService;
+import com.martminds.service.LocationIngestService;
 import com.martminds.service.OrderService;
 import com.martminds.util.Session;
 import com.martminds.util.ValidationUtil;
@@ -17,10 +20,13 @@ public class DriverController {
     public List<Order> getAvailableOrders() {
         Session.getInstance().requireDriver();
 
-        return OrderService.getInstance().getAllOrders().stream()
-                .filter(order -> order.getStatus() == OrderStatus.READY_FOR_PICKUP)
-                .filter(order -> order.getDriverId() == null)
-                .collect(Collectors.toList());
+        List<Order> availableOrders = new ArrayList<>();
+        for (Order order : OrderService.getInstance().getOrdersByStatus(OrderStatus.READY_FOR_PICKUP)) {
+            if (order.getDriverId() == null) {
+                availableOrders.add(order);
+            }
+        }
+        return availableOrders;
     }
 
     public boolean acceptOrder(String orderId) throws InvalidOrderException {
@@ -46,8 +52,11 @@ public class DriverController {
             throw new InvalidOrderException("Order already assigned to another driver", orderId);
         }
 
-        order.assignDriver(driver.getUserId());
-        driver.acceptOrder(orderId);
+        synchronized (driver) {
+            OrderService.getInstance().assignDriver(orderId, driver.getUserId());
+            driver.acceptOrder(orderId);
+            DriverService.getInstance().refreshDispatchIndex(driver);
+        }
 
         return true;
     }
@@ -71,10 +80,10 @@ public class DriverController {
             throw new InvalidOrderException("You are not assigned to this order", orderId);
         }
 
-        order.updateStatus(newStatus);
-
         if (newStatus == OrderStatus.DELIVERED) {
-            order.markAsDelivered();
+            OrderService.getInstance().markAsDelivered(orderId);
+        } else {
+            OrderService.getInstance().updateOrderStatus(orderId, newStatus);
         }
 
         return true;
@@ -86,18 +95,25 @@ public class DriverController {
         User currentUser = Session.getInstance().getCurrentUser();
         Driver driver = (Driver) currentUser;
 
-        return OrderService.getInstance().getAllOrders().stream()
-                .filter(order -> driver.getUserId().equals(order.getDriverId()))
-                .collect(Collectors.toList());
+        return OrderService.getInstance().getOrdersByDriver(driver.getUserId());
     }
 
     public boolean updateLocation(double latitude, double longitude) {
         Session.getInstance().requireDriver();
 
-        User currentUser = Session.getInstance().getCurrentUser();
-        Driver driver = (Driver) currentUser;
+        if (!ValidationUtil.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        return LocationIngestService.getInstance().ingestAndPublish(Session.getInstance().getCurrentUserId(),
+                latitude, longitude, System.currentTimeMillis());
+    }
 
-        driver.updateLocation(latitude, longitude);
-        return true;
+    public int updateLocations(double[] latitudes, double[] longitudes, long[] timestamps, int count) {
+        Session.getInstance().requireDriver();
+
+        String driverId = Session.getInstance().getCurrentUserId();
+        String[] driverIds = new String[count];
+        Arrays.fill(driverIds, driverId);
+        return LocationIngestService.getInstance().ingestBatch(driverIds, latitudes, longitudes, timestamps, count);
     }
 }
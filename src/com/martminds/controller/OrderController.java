@@ -44,7 +44,32 @@ public class OrderController {
         return orderService.getOrdersByCustomer(currentUser.getUserId());
     }
 
+    public void cancelOrder(String orderId) throws InvalidOrderException {
+        Session session = Session.getInstance();
+        session.requireLogin();
+
+        Order order = orderService.findOrderById(orderId);
+        if (order == null) {
+            throw new InvalidOrderException("Order not found", orderId);
+        }
+        if (!session.isAdmin() && !order.getCustomerId().equals(session.getCurrentUserId())) {
+            throw new IllegalStateException("You are not authorized to cancel this order");
+        }
+
+        orderService.cancelOrder(orderId);
+    }
+
+    public double getCheckoutTotal(Order order) {
+        return orderService.calculateCheckoutTotal(order);
+    }
+
     public Order getOrderDetails(String orderId) {
         return orderService.findOrderById(orderId);
     }
+
+    public List<Order> searchOrders(String query) {
+        Session.getInstance().requireAdmin();
+
+        return orderService.searchOrders(query);
+    }
 }
@@ -128,6 +128,12 @@ public class PaymentController {
         return PaymentService.getInstance().getAllPayments();
     }
 
+    public List<Payment> searchPayments(String query) {
+        Session.getInstance().requireAdmin();
+
+        return PaymentService.getInstance().searchPayments(query);
+    }
+
     public boolean cancelPayment(String paymentId) {
         Session.getInstance().requireLogin();
 
@@ -152,8 +158,7 @@ public class PaymentController {
             throw new IllegalStateException("Payment is already cancelled");
         }
 
-        payment.setStatus(PaymentStatus.CANCELLED);
-        return true;
+        return PaymentService.getInstance().updatePaymentStatus(paymentId, PaymentStatus.CANCELLED);
     }
 
     public List<Payment> getPaymentsByStatus(PaymentStatus status) {
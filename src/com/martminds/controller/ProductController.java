@@ -1,8 +1,11 @@
 package com.martminds.controller;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.martminds.model.product.Product;
+import com.martminds.service.BestSellerService;
 import com.martminds.service.ProductService;
 import com.martminds.util.Session;
 import com.martminds.util.ValidationUtil;
@@ -67,6 +70,25 @@ public class ProductController {
         return ProductService.getInstance().getProductsByCategory(category);
     }
 
+    public List<Product> searchProducts(String query) {
+        return ProductService.getInstance().searchProducts(query);
+    }
+
+    public List<Product> getBestSellers(int limit, Duration window) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+
+        List<Product> bestSellers = new ArrayList<>();
+        for (String productId : BestSellerService.getInstance().getTopSellers(limit, window).keySet()) {
+            Product product = ProductService.getInstance().getProductById(productId);
+            if (product != null) {
+                bestSellers.add(product);
+            }
+        }
+        return bestSellers;
+    }
+
     public List<Product> getProductsByStore(String storeId) {
         if (!ValidationUtil.isNotEmpty(storeId)) {
             throw new IllegalArgumentException("Store ID cannot be empty");
@@ -108,8 +130,7 @@ public class ProductController {
             throw new IllegalArgumentException("Product not found: " + productId);
         }
 
-        product.setPrice(newPrice);
-        return true;
+        return ProductService.getInstance().updateProductDetails(productId, null, newPrice, null);
     }
 
     public boolean updateProduct(String productId, String name, double price,
@@ -125,17 +146,9 @@ public class ProductController {
             throw new IllegalArgumentException("Product not found: " + productId);
         }
 
-        if (ValidationUtil.isNotEmpty(name)) {
-            product.setName(name);
-        }
-        if (price > 0) {
-            product.setPrice(price);
-        }
-        if (ValidationUtil.isNotEmpty(description)) {
-            product.setDescription(description);
-        }
+        ProductService.getInstance().updateProductDetails(productId, name, price, description);
         if (ValidationUtil.isNotEmpty(category)) {
-            product.setCategory(category);
+            ProductService.getInstance().updateProductCategory(productId, category);
         }
 
         return true;
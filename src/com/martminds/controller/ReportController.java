@@ -1,27 +1,38 @@
 package com.martminds.controller;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import com.martminds.enums.OrderStatus;
+import com.martminds.enums.PaymentMethod;
 import com.martminds.enums.PaymentStatus;
 import com.martminds.enums.UserRole;
 import com.martminds.model.order.Order;
 import com.martminds.model.payment.Payment;
 import com.martminds.model.product.Product;
+import com.martminds.model.report.InventorySummary;
+import com.martminds.model.report.PaymentSummary;
+import com.martminds.model.report.SalesSummary;
 import com.martminds.model.user.Driver;
 import com.martminds.model.user.User;
 import com.martminds.service.*;
 import com.martminds.util.Session;
 
 public class ReportController {
+        private static final int LOW_STOCK_THRESHOLD = 10;
+        private static final int INVENTORY_LIST_LIMIT = 20;
+
         private OrderService orderService;
         private PaymentService paymentService;
         private ProductService productService;
         private UserService userService;
         private DriverService driverService;
+        private MetricsService metricsService;
+        private ReportEngine reportEngine;
+        private BestSellerService bestSellerService;
 
         public ReportController() {
                 this.orderService = OrderService.getInstance();
@@ -29,69 +40,62 @@ public class ReportController {
                 this.productService = ProductService.getInstance();
                 this.userService = UserService.getInstance();
                 this.driverService = DriverService.getInstance();
+                this.metricsService = MetricsService.getInstance();
+                this.reportEngine = ReportEngine.getInstance();
+                this.bestSellerService = BestSellerService.getInstance();
         }
 
         public String generateSalesReport() {
                 Session.getInstance().requireAdmin();
 
+                return renderSalesReport(metricsService.getSalesSummary(), null, null);
+        }
+
+        public String generateSalesReport(LocalDateTime from, LocalDateTime to) {
+                Session.getInstance().requireAdmin();
+
+                return renderSalesReport(reportEngine.summarizeSales(from, to), from, to);
+        }
+
+        private String renderSalesReport(SalesSummary summary, LocalDateTime from, LocalDateTime to) {
                 StringBuilder report = new StringBuilder();
                 report.append("\n╔════════════════════════════════════════════════════════════╗\n");
                 report.append("║                     SALES REPORT                           ║\n");
                 report.append("╚════════════════════════════════════════════════════════════╝\n\n");
 
-                List<Order> allOrders = orderService.getAllOrders();
-                List<Order> completedOrders = allOrders.stream()
-                                .filter(order -> order.getStatus() == OrderStatus.DELIVERED)
-                                .collect(Collectors.toList());
-
-                double totalRevenue = completedOrders.stream()
-                                .mapToDouble(Order::getTotalPrice)
-                                .sum();
-
-                Map<OrderStatus, Long> ordersByStatus = allOrders.stream()
-                                .collect(Collectors.groupingBy(Order::getStatus, Collectors.counting()));
-
-                report.append(String.format("Generated: %s\n\n",
+                report.append(String.format("Generated: %s\n",
                                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
+                appendPeriod(report, from, to);
 
                 report.append("SUMMARY\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
-                report.append(String.format("  Total Orders:          %d\n", allOrders.size()));
-                report.append(String.format("  Completed Orders:      %d\n", completedOrders.size()));
-                report.append(String.format("  Total Revenue:         Rp %,.0f\n", totalRevenue));
-                report.append(String.format("  Average Order Value:   Rp %,.0f\n\n",
-                                completedOrders.isEmpty() ? 0 : totalRevenue / completedOrders.size()));
+                report.append(String.format("  Total Orders:          %d\n", summary.getOrderCount()));
+                report.append(String.format("  Completed Orders:      %d\n", summary.getCompletedOrderCount()));
+                report.append(String.format("  Total Revenue:         Rp %,.0f\n", summary.getRevenue()));
+                report.append(String.format("  Average Order Value:   Rp %,.0f\n\n", summary.getAverageOrderValue()));
 
                 report.append("ORDERS BY STATUS\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
                 for (OrderStatus status : OrderStatus.values()) {
-                        long count = ordersByStatus.getOrDefault(status, 0L);
+                        long count = summary.getOrderCount(status);
                         report.append(String.format("  %-25s: %d\n", status.toString(), count));
                 }
                 report.append("\n");
 
-                Map<String, Integer> productSales = new HashMap<>();
-                for (Order order : completedOrders) {
-                        order.getItems().forEach(item -> {
-                                productSales.merge(item.getProductId(), item.getQuantity(), Integer::sum);
-                        });
-                }
+                Map<String, Long> productSales = summary.getTopSellingProducts(5);
 
                 if (!productSales.isEmpty()) {
                         report.append("TOP SELLING PRODUCTS\n");
                         report.append("  ────────────────────────────────────────────────────────────\n");
-                        productSales.entrySet().stream()
-                                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                                        .limit(5)
-                                        .forEach(entry -> {
-                                                Product product = productService.getProductById(entry.getKey());
-                                                String productName = product != null ? product.getName()
-                                                                : entry.getKey();
-                                                report.append(String.format("  %-30s: %d units sold\n",
-                                                                productName.substring(0,
-                                                                                Math.min(30, productName.length())),
-                                                                entry.getValue()));
-                                        });
+                        productSales.forEach((productId, units) -> {
+                                Product product = productService.getProductById(productId);
+                                String productName = product != null ? product.getName()
+                                                : productId;
+                                report.append(String.format("  %-30s: %d units sold\n",
+                                                productName.substring(0,
+                                                                Math.min(30, productName.length())),
+                                                units));
+                        });
                         report.append("\n");
                 }
 
@@ -101,63 +105,63 @@ public class ReportController {
         public String generatePaymentReport() {
                 Session.getInstance().requireAdmin();
 
+                return renderPaymentReport(metricsService.getPaymentSummary(), null, null);
+        }
+
+        public String generatePaymentReport(LocalDateTime from, LocalDateTime to) {
+                Session.getInstance().requireAdmin();
+
+                return renderPaymentReport(reportEngine.summarizePayments(from, to), from, to);
+        }
+
+        private String renderPaymentReport(PaymentSummary summary, LocalDateTime from, LocalDateTime to) {
                 StringBuilder report = new StringBuilder();
                 report.append("\n╔════════════════════════════════════════════════════════════╗\n");
                 report.append("║                   PAYMENT REPORT                           ║\n");
                 report.append("╚════════════════════════════════════════════════════════════╝\n\n");
 
-                List<Payment> allPayments = paymentService.getAllPayments();
-                List<Payment> successfulPayments = allPayments.stream()
-                                .filter(payment -> payment.getStatus() == PaymentStatus.SUCCESS)
-                                .collect(Collectors.toList());
-
-                double totalAmount = successfulPayments.stream()
-                                .mapToDouble(Payment::getAmount)
-                                .sum();
-
-                report.append(String.format("Generated: %s\n\n",
+                report.append(String.format("Generated: %s\n",
                                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
+                appendPeriod(report, from, to);
 
                 report.append("SUMMARY\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
-                report.append(String.format("  Total Payments:        %d\n", allPayments.size()));
-                report.append(String.format("  Successful Payments:   %d\n", successfulPayments.size()));
-                report.append(String.format("  Total Amount:          Rp %,.0f\n\n", totalAmount));
-
-                Map<PaymentStatus, Long> paymentsByStatus = allPayments.stream()
-                                .collect(Collectors.groupingBy(Payment::getStatus, Collectors.counting()));
+                report.append(String.format("  Total Payments:        %d\n", summary.getPaymentCount()));
+                report.append(String.format("  Successful Payments:   %d\n", summary.getSuccessfulCount()));
+                report.append(String.format("  Total Amount:          Rp %,.0f\n\n", summary.getSuccessfulAmount()));
 
                 report.append("PAYMENTS BY STATUS\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
                 for (PaymentStatus status : PaymentStatus.values()) {
-                        long count = paymentsByStatus.getOrDefault(status, 0L);
+                        long count = summary.getPaymentCount(status);
                         report.append(String.format("  %-20s: %d\n", status.toString(), count));
                 }
                 report.append("\n");
 
-                Map<String, Long> paymentsByMethod = successfulPayments.stream()
-                                .collect(Collectors.groupingBy(payment -> payment.getClass().getSimpleName(),
-                                                Collectors.counting()));
-
-                Map<String, Double> amountByMethod = new HashMap<>();
-                for (Payment payment : successfulPayments) {
-                        String method = payment.getClass().getSimpleName();
-                        amountByMethod.merge(method, payment.getAmount(), Double::sum);
-                }
-
                 report.append("PAYMENTS BY METHOD\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
-                for (Map.Entry<String, Long> entry : paymentsByMethod.entrySet()) {
-                        String method = entry.getKey().replace("Payment", "");
-                        double amount = amountByMethod.get(entry.getKey());
-                        report.append(String.format("  %-20s: %d payments (Rp %,.0f)\n",
-                                        method, entry.getValue(), amount));
+                for (PaymentMethod method : PaymentMethod.values()) {
+                        long count = summary.getSuccessfulCount(method);
+                        if (count > 0) {
+                                report.append(String.format("  %-20s: %d payments (Rp %,.0f)\n",
+                                                method.toString(), count, summary.getSuccessfulAmount(method)));
+                        }
                 }
                 report.append("\n");
 
                 return report.toString();
         }
 
+        private void appendPeriod(StringBuilder report, LocalDateTime from, LocalDateTime to) {
+                if (from != null || to != null) {
+                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+                        report.append(String.format("Period: %s - %s\n",
+                                        from != null ? from.format(formatter) : "beginning",
+                                        to != null ? to.format(formatter) : "now"));
+                }
+                report.append("\n");
+        }
+
         public String generateInventoryReport() {
                 Session.getInstance().requireAdmin();
 
@@ -166,34 +170,27 @@ public class ReportController {
                 report.append("║                  INVENTORY REPORT                          ║\n");
                 report.append("╚════════════════════════════════════════════════════════════╝\n\n");
 
-                List<Product> allProducts = productService.getAllProducts();
+                InventorySummary summary = reportEngine.summarizeInventory(LOW_STOCK_THRESHOLD, INVENTORY_LIST_LIMIT);
 
                 report.append(String.format("Generated: %s\n\n",
                                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
 
                 report.append("SUMMARY\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
-                report.append(String.format("  Total Products:        %d\n", allProducts.size()));
+                report.append(String.format("  Total Products:        %d\n", summary.getProductCount()));
 
-                long inStock = allProducts.stream().filter(p -> p.getStock() > 0).count();
-                long outOfStock = allProducts.stream().filter(p -> p.getStock() == 0).count();
-                long lowStock = allProducts.stream().filter(p -> p.getStock() > 0 && p.getStock() < 10).count();
+                long outOfStock = summary.getOutOfStockCount();
+                long lowStock = summary.getLowStockCount();
 
-                report.append(String.format("  In Stock:              %d\n", inStock));
+                report.append(String.format("  In Stock:              %d\n", summary.getInStockCount()));
                 report.append(String.format("  Out of Stock:          %d\n", outOfStock));
-                report.append(String.format("  Low Stock (< 10):      %d\n\n", lowStock));
-
-                double totalValue = allProducts.stream()
-                                .mapToDouble(p -> p.getPrice() * p.getStock())
-                                .sum();
-                report.append(String.format("  Total Inventory Value: Rp %,.0f\n\n", totalValue));
+                report.append(String.format("  Low Stock (< %d):      %d\n\n", LOW_STOCK_THRESHOLD, lowStock));
 
-                Map<String, Long> productsByCategory = allProducts.stream()
-                                .collect(Collectors.groupingBy(Product::getCategory, Collectors.counting()));
+                report.append(String.format("  Total Inventory Value: Rp %,.0f\n\n", summary.getTotalValue()));
 
                 report.append("PRODUCTS BY CATEGORY\n");
                 report.append("  ────────────────────────────────────────────────────────────\n");
-                for (Map.Entry<String, Long> entry : productsByCategory.entrySet()) {
+                for (Map.Entry<String, Long> entry : summary.getProductsByCategory().entrySet()) {
                         report.append(String.format("  %-30s: %d products\n", entry.getKey(), entry.getValue()));
                 }
                 report.append("\n");
@@ -201,30 +198,40 @@ public class ReportController {
                 if (lowStock > 0) {
                         report.append("LOW STOCK ALERT\n");
                         report.append("  ────────────────────────────────────────────────────────────\n");
-                        allProducts.stream()
-                                        .filter(p -> p.getStock() > 0 && p.getStock() < 10)
-                                        .sorted(Comparator.comparingInt(Product::getStock))
-                                        .forEach(p -> report.append(String.format("  %-10s %-30s: %d units\n",
-                                                        p.getProductId(),
-                                                        p.getName().substring(0, Math.min(30, p.getName().length())),
-                                                        p.getStock())));
+                        List<InventorySummary.StockLevel> lowStockProducts = summary.getLowStockProducts();
+                        for (InventorySummary.StockLevel level : lowStockProducts) {
+                                Product p = level.getProduct();
+                                report.append(String.format("  %-10s %-30s: %d units\n",
+                                                p.getProductId(),
+                                                p.getName().substring(0, Math.min(30, p.getName().length())),
+                                                level.getStock()));
+                        }
+                        appendRemaining(report, lowStock - lowStockProducts.size());
                         report.append("\n");
                 }
 
                 if (outOfStock > 0) {
                         report.append("OUT OF STOCK\n");
                         report.append("  ────────────────────────────────────────────────────────────\n");
-                        allProducts.stream()
-                                        .filter(p -> p.getStock() == 0)
-                                        .forEach(p -> report.append(String.format("  %-10s %s\n",
-                                                        p.getProductId(),
-                                                        p.getName().substring(0, Math.min(48, p.getName().length())))));
+                        List<Product> outOfStockProducts = summary.getOutOfStockProducts();
+                        for (Product p : outOfStockProducts) {
+                                report.append(String.format("  %-10s %s\n",
+                                                p.getProductId(),
+                                                p.getName().substring(0, Math.min(48, p.getName().length()))));
+                        }
+                        appendRemaining(report, outOfStock - outOfStockProducts.size());
                         report.append("\n");
                 }
 
                 return report.toString();
         }
 
+        private void appendRemaining(StringBuilder report, long remaining) {
+                if (remaining > 0) {
+                        report.append(String.format("  ... and %d more\n", remaining));
+                }
+        }
+
         public String generateUserStatistics() {
                 Session.getInstance().requireAdmin();
 
@@ -314,33 +321,18 @@ public class ReportController {
                 dashboard.append(String.format("Generated: %s\n\n",
                                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
 
-                List<Order> orders = orderService.getAllOrders();
-                List<Product> products = productService.getAllProducts();
-                List<User> users = userService.getAllUsers();
-                List<Payment> payments = paymentService.getAllPayments();
-
-                double totalRevenue = orders.stream()
-                                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                                .mapToDouble(Order::getTotalPrice)
-                                .sum();
-
                 dashboard.append("QUICK OVERVIEW\n");
                 dashboard.append("  ────────────────────────────────────────────────────────────\n");
-                dashboard.append(String.format("  Total Users:           %d\n", users.size()));
-                dashboard.append(String.format("  Total Products:        %d\n", products.size()));
-                dashboard.append(String.format("  Total Orders:          %d\n", orders.size()));
-                dashboard.append(String.format("  Total Payments:        %d\n", payments.size()));
-                dashboard.append(String.format("  Total Revenue:         Rp %,.0f\n\n", totalRevenue));
-
-                long pendingOrders = orders.stream()
-                                .filter(o -> o.getStatus() == OrderStatus.PENDING)
-                                .count();
-                long outForDelivery = orders.stream()
-                                .filter(o -> o.getStatus() == OrderStatus.OUT_FOR_DELIVERY)
-                                .count();
-                long lowStockProducts = products.stream()
-                                .filter(p -> p.getStock() > 0 && p.getStock() < 10)
-                                .count();
+                dashboard.append(String.format("  Total Users:           %d\n", userService.getUserCount()));
+                dashboard.append(String.format("  Total Products:        %d\n", productService.getProductCount()));
+                dashboard.append(String.format("  Total Orders:          %d\n", metricsService.getTotalOrders()));
+                dashboard.append(String.format("  Total Payments:        %d\n", metricsService.getTotalPayments()));
+                dashboard.append(String.format("  Total Revenue:         Rp %,.0f\n\n",
+                                metricsService.getDeliveredRevenue()));
+
+                long pendingOrders = metricsService.getOrderCount(OrderStatus.PENDING);
+                long outForDelivery = metricsService.getOrderCount(OrderStatus.OUT_FOR_DELIVERY);
+                long lowStockProducts = productService.countLowStockProducts(LOW_STOCK_THRESHOLD);
 
                 dashboard.append("ALERTS & NOTIFICATIONS\n");
                 dashboard.append("  ────────────────────────────────────────────────────────────\n");
@@ -348,6 +340,20 @@ public class ReportController {
                 dashboard.append(String.format("  Out for Delivery:      %d\n", outForDelivery));
                 dashboard.append(String.format("  Low Stock Products:    %d\n\n", lowStockProducts));
 
+                Map<String, Long> trending = bestSellerService.getTopSellers(5, Duration.ofHours(24));
+                if (!trending.isEmpty()) {
+                        dashboard.append("BEST SELLERS (LAST 24 HOURS)\n");
+                        dashboard.append("  ────────────────────────────────────────────────────────────\n");
+                        trending.forEach((productId, units) -> {
+                                Product product = productService.getProductById(productId);
+                                String productName = product != null ? product.getName() : productId;
+                                dashboard.append(String.format("  %-30s: ~%d units ordered\n",
+                                                productName.substring(0, Math.min(30, productName.length())),
+                                                units));
+                        });
+                        dashboard.append("\n");
+                }
+
                 return dashboard.toString();
         }
 }
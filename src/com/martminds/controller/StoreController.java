@@ -7,45 +7,26 @@ import com.martminds.model.common.Address;
 import com.martminds.model.order.Order;
 import com.martminds.model.product.Product;
 import com.martminds.model.store.Store;
+import com.martminds.service.DistanceService;
 import com.martminds.service.OrderService;
 import com.martminds.service.ProductService;
+import com.martminds.service.StoreService;
 import com.martminds.util.Session;
 import com.martminds.util.ValidationUtil;
 
 public class StoreController {
-    private List<Store> stores;
+    private StoreService storeService;
     private ProductService productService;
     private OrderService orderService;
 
     public StoreController() {
-        this.stores = new ArrayList<>();
+        this.storeService = StoreService.getInstance();
         this.productService = ProductService.getInstance();
         this.orderService = OrderService.getInstance();
-        initializeDefaultStores();
-    }
-
-    private void initializeDefaultStores() {
-        if (stores.isEmpty()) {
-
-            Address defaultAddress = new Address(
-                    "123 Main Street",
-                    "Jakarta",
-                    "12170",
-                    "Central Jakarta",
-                    "DKI Jakarta");
-
-            Store defaultStore = new Store(
-                    "S001",
-                    "MartMinds Central",
-                    defaultAddress,
-                    "081234567890");
-
-            stores.add(defaultStore);
-        }
     }
 
     public List<Store> getAllStores() {
-        return new ArrayList<>(stores);
+        return storeService.getAllStores();
     }
 
     public Store getStoreById(String storeId) {
@@ -53,10 +34,7 @@ public class StoreController {
             return null;
         }
 
-        return stores.stream()
-                .filter(store -> store.getStoreId().equalsIgnoreCase(storeId))
-                .findFirst()
-                .orElse(null);
+        return storeService.getStoreById(storeId);
     }
 
     public Store createStore(String storeId, String name, Address address, String contactNumber) {
@@ -75,7 +53,9 @@ public class StoreController {
         }
 
         Store newStore = new Store(storeId, name, address, contactNumber);
-        stores.add(newStore);
+        if (!storeService.addStore(newStore)) {
+            throw new IllegalArgumentException("Store with ID " + storeId + " already exists");
+        }
 
         return newStore;
     }
@@ -94,6 +74,7 @@ public class StoreController {
 
         if (address != null) {
             store.setAddress(address);
+            DistanceService.getInstance().invalidateStore(store.getStoreId());
         }
 
         if (ValidationUtil.isNotEmpty(contactNumber)) {
@@ -119,7 +100,7 @@ public class StoreController {
             throw new IllegalStateException("Cannot delete store with active products. Remove products first.");
         }
 
-        return stores.remove(store);
+        return storeService.removeStore(storeId);
     }
 
     public List<Product> getStoreProducts(String storeId) {
@@ -127,9 +108,7 @@ public class StoreController {
             return new ArrayList<>();
         }
 
-        return productService.getAllProducts().stream()
-                .filter(product -> storeId.equals(product.getStoreId()))
-                .collect(Collectors.toList());
+        return productService.getProductsByStore(storeId);
     }
 
     public List<Order> getStoreOrders(String storeId) {
@@ -137,9 +116,7 @@ public class StoreController {
             return new ArrayList<>();
         }
 
-        return orderService.getAllOrders().stream()
-                .filter(order -> storeId.equals(order.getStoreId()))
-                .collect(Collectors.toList());
+        return orderService.getOrdersByStore(storeId);
     }
 
     public List<Store> searchStoresByName(String searchTerm) {
@@ -148,7 +125,7 @@ public class StoreController {
         }
 
         String lowerSearchTerm = searchTerm.toLowerCase();
-        return stores.stream()
+        return getAllStores().stream()
                 .filter(store -> store.getName().toLowerCase().contains(lowerSearchTerm))
                 .collect(Collectors.toList());
     }
@@ -159,7 +136,7 @@ public class StoreController {
         }
 
         String lowerCity = city.toLowerCase();
-        return stores.stream()
+        return getAllStores().stream()
                 .filter(store -> store.getAddress().getCity().toLowerCase().contains(lowerCity))
                 .collect(Collectors.toList());
     }
@@ -237,6 +214,7 @@ public class StoreController {
         summary.append("║                   ALL STORES SUMMARY                       ║\n");
         summary.append("╚════════════════════════════════════════════════════════════╝\n\n");
 
+        List<Store> stores = getAllStores();
         summary.append(String.format("  Total Stores: %d\n\n", stores.size()));
 
         summary.append(String.format("  %-10s %-25s %-20s %-10s\n",
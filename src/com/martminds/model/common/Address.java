@@ -1,5 +1,7 @@
 package com.martminds.model.common;
 
+import java.util.Locale;
+
 import com.martminds.util.ValidationUtil;
 
 public class Address {
@@ -8,6 +10,10 @@ public class Address {
     private String postalCode;
     private String district;
     private String province;
+    private double latitude;
+    private double longitude;
+    private boolean hasCoordinates;
+    private String normalizedKey;
 
     public Address() {
         this.street = "";
@@ -31,6 +37,7 @@ public class Address {
 
     public void setStreet(String street) {
         this.street = street;
+        invalidate();
     }
 
     public String getCity() {
@@ -39,6 +46,7 @@ public class Address {
 
     public void setCity(String city) {
         this.city = city;
+        invalidate();
     }
 
     public String getPostalCode() {
@@ -48,6 +56,7 @@ public class Address {
     public void setPostalCode(String postalCode) {
         if (ValidationUtil.isValidPostalCode(postalCode)) {
             this.postalCode = postalCode;
+            invalidate();
         } else {
             throw new IllegalArgumentException("Invalid postal code format. Expected 5 digits.");
         }
@@ -59,6 +68,7 @@ public class Address {
 
     public void setDistrict(String district) {
         this.district = district;
+        invalidate();
     }
 
     public String getProvince() {
@@ -67,6 +77,55 @@ public class Address {
 
     public void setProvince(String province) {
         this.province = province;
+        invalidate();
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public boolean hasCoordinates() {
+        return hasCoordinates;
+    }
+
+    public void setCoordinates(double latitude, double longitude) {
+        if (!ValidationUtil.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.hasCoordinates = true;
+    }
+
+    private void invalidate() {
+        clearCoordinates();
+        this.normalizedKey = null;
+    }
+
+    public void clearCoordinates() {
+        this.latitude = 0.0;
+        this.longitude = 0.0;
+        this.hasCoordinates = false;
+    }
+
+    public String getNormalizedKey() {
+        String key = normalizedKey;
+        if (key == null) {
+            key = (normalize(postalCode) + "|" + normalize(district) + "|" + normalize(city)).intern();
+            normalizedKey = key;
+        }
+        return key;
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 
     public String getFullAddress() {
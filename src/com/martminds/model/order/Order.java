@@ -113,6 +113,19 @@ public class Order {
         updateTimestamp();
     }
 
+    public void restoreItem(OrderItem item) {
+        items.add(item);
+        totalPrice += item.calculateSubtotal();
+    }
+
+    public void restoreState(OrderStatus status, String driverId, LocalDateTime createdAt) {
+        this.status = status;
+        this.driverId = driverId;
+        if (createdAt != null) {
+            this.createdAt = createdAt;
+        }
+    }
+
     public void removeItem(String orderItemId) throws InvalidOrderException {
         if (orderItemId == null || orderItemId.trim().isEmpty()) {
             throw new InvalidOrderException("Order item ID cannot be empty", orderId);
@@ -1,10 +1,12 @@
 package com.martminds.model.product;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Product {
     private String productId;
     private String name;
     private double price;
-    private int stock;
+    private final AtomicInteger stock;
     private String description;
     private String storeId;
     private String category;
@@ -14,7 +16,7 @@ public class Product {
         this.productId = productId;
         this.name = name;
         this.price = price;
-        this.stock = stock;
+        this.stock = new AtomicInteger(stock);
         this.description = description;
         this.storeId = storeId;
         this.category = category;
@@ -33,7 +35,7 @@ public class Product {
     }
 
     public int getStock() {
-        return stock;
+        return stock.get();
     }
 
     public String getDescription() {
@@ -65,16 +67,32 @@ public class Product {
     }
 
     public void updateStock(int quantity) {
-        this.stock += quantity;
+        stock.addAndGet(quantity);
+    }
+
+    public boolean tryReserve(int quantity) {
+        while (true) {
+            int current = stock.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (stock.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(int quantity) {
+        stock.addAndGet(quantity);
     }
 
     public boolean isAvailable() {
-        return stock > 0;
+        return stock.get() > 0;
     }
 
     @Override
     public String toString() {
         return String.format("Product[ID=%s, Name=%s, Price=%.2f, Stock=%d]",
-                productId, name, price, stock);
+                productId, name, price, stock.get());
     }
 }
@@ -0,0 +1,115 @@
+package com.martminds.model.report;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.martminds.model.product.Product;
+import com.martminds.util.TopK;
+
+public class InventorySummary {
+    private static final Comparator<StockLevel> BY_STOCK = Comparator.comparingInt(StockLevel::getStock)
+            .thenComparing(level -> level.getProduct().getProductId());
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getProductId);
+
+    private final int lowStockThreshold;
+    private long productCount;
+    private long inStock;
+    private long outOfStock;
+    private long lowStock;
+    private double totalValue;
+    private final Map<String, Long> productsByCategory;
+    private final TopK<StockLevel> lowStockProducts;
+    private final TopK<Product> outOfStockProducts;
+
+    public static final class StockLevel {
+        private final Product product;
+        private final int stock;
+
+        private StockLevel(Product product, int stock) {
+            this.product = product;
+            this.stock = stock;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+    }
+
+    public InventorySummary(int lowStockThreshold, int listLimit) {
+        this.lowStockThreshold = lowStockThreshold;
+        this.productsByCategory = new TreeMap<>();
+        this.lowStockProducts = new TopK<>(listLimit, BY_STOCK);
+        this.outOfStockProducts = new TopK<>(listLimit, BY_ID);
+    }
+
+    public void accumulate(Product product) {
+        int stock = product.getStock();
+        productCount++;
+        if (stock > 0) {
+            inStock++;
+            if (stock < lowStockThreshold) {
+                lowStock++;
+                lowStockProducts.add(new StockLevel(product, stock));
+            }
+        } else if (stock == 0) {
+            outOfStock++;
+            outOfStockProducts.add(product);
+        }
+        totalValue += product.getPrice() * stock;
+        productsByCategory.merge(product.getCategory(), 1L, Long::sum);
+    }
+
+    public InventorySummary merge(InventorySummary other) {
+        productCount += other.productCount;
+        inStock += other.inStock;
+        outOfStock += other.outOfStock;
+        lowStock += other.lowStock;
+        totalValue += other.totalValue;
+        other.productsByCategory.forEach((category, count) -> productsByCategory.merge(category, count, Long::sum));
+        lowStockProducts.merge(other.lowStockProducts);
+        outOfStockProducts.merge(other.outOfStockProducts);
+        return this;
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public long getInStockCount() {
+        return inStock;
+    }
+
+    public long getOutOfStockCount() {
+        return outOfStock;
+    }
+
+    public long getLowStockCount() {
+        return lowStock;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public Map<String, Long> getProductsByCategory() {
+        return productsByCategory;
+    }
+
+    public List<StockLevel> getLowStockProducts() {
+        return lowStockProducts.toList();
+    }
+
+    public List<Product> getOutOfStockProducts() {
+        return outOfStockProducts.toList();
+    }
+}
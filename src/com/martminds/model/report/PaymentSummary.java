@@ -0,0 +1,76 @@
+package com.martminds.model.report;
+
+import com.martminds.enums.PaymentMethod;
+import com.martminds.enums.PaymentStatus;
+import com.martminds.model.payment.Payment;
+
+public class PaymentSummary {
+    private final long[] paymentsByStatus;
+    private final long[] successfulByMethod;
+    private final double[] successfulAmountByMethod;
+    private long paymentCount;
+
+    public PaymentSummary() {
+        this.paymentsByStatus = new long[PaymentStatus.values().length];
+        this.successfulByMethod = new long[PaymentMethod.values().length];
+        this.successfulAmountByMethod = new double[PaymentMethod.values().length];
+        this.paymentCount = 0;
+    }
+
+    public void accumulate(Payment payment) {
+        addPayments(payment.getStatus(), 1);
+        if (payment.getStatus() == PaymentStatus.SUCCESS) {
+            addSuccessful(payment.getMethod(), 1, payment.getAmount());
+        }
+    }
+
+    public PaymentSummary merge(PaymentSummary other) {
+        for (int i = 0; i < paymentsByStatus.length; i++) {
+            paymentsByStatus[i] += other.paymentsByStatus[i];
+        }
+        for (int i = 0; i < successfulByMethod.length; i++) {
+            successfulByMethod[i] += other.successfulByMethod[i];
+            successfulAmountByMethod[i] += other.successfulAmountByMethod[i];
+        }
+        paymentCount += other.paymentCount;
+        return this;
+    }
+
+    public void addPayments(PaymentStatus status, long count) {
+        paymentsByStatus[status.ordinal()] += count;
+        paymentCount += count;
+    }
+
+    public void addSuccessful(PaymentMethod method, long count, double amount) {
+        successfulByMethod[method.ordinal()] += count;
+        successfulAmountByMethod[method.ordinal()] += amount;
+    }
+
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    public long getPaymentCount(PaymentStatus status) {
+        return paymentsByStatus[status.ordinal()];
+    }
+
+    public long getSuccessfulCount() {
+        return getPaymentCount(PaymentStatus.SUCCESS);
+    }
+
+    public double getSuccessfulAmount() {
+        double total = 0;
+        for (double amount : successfulAmountByMethod) {
+            total += amount;
+        }
+        return total;
+    }
+
+    public long getSuccessfulCount(PaymentMethod method) {
+        return successfulByMethod[method.ordinal()];
+    }
+
+    public double getSuccessfulAmount(PaymentMethod method) {
+        return successfulAmountByMethod[method.ordinal()];
+    }
+}
@@ -0,0 +1,100 @@
+package com.martminds.model.report;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.martminds.enums.OrderStatus;
+import com.martminds.model.order.Order;
+import com.martminds.model.order.OrderItem;
+
+public class SalesSummary {
+    private final long[] ordersByStatus;
+    private long orderCount;
+    private double revenue;
+    private final Map<String, Long> unitsSold;
+
+    public SalesSummary() {
+        this.ordersByStatus = new long[OrderStatus.values().length];
+        this.orderCount = 0;
+        this.revenue = 0;
+        this.unitsSold = new HashMap<>();
+    }
+
+    public void accumulate(Order order) {
+        addOrders(order.getStatus(), 1);
+        if (order.getStatus() == OrderStatus.DELIVERED) {
+            addRevenue(order.getTotalPrice());
+            for (OrderItem item : order.getItems()) {
+                addUnitsSold(item.getProductId(), item.getQuantity());
+            }
+        }
+    }
+
+    public SalesSummary merge(SalesSummary other) {
+        for (int i = 0; i < ordersByStatus.length; i++) {
+            ordersByStatus[i] += other.ordersByStatus[i];
+        }
+        orderCount += other.orderCount;
+        revenue += other.revenue;
+        other.unitsSold.forEach(this::addUnitsSold);
+        return this;
+    }
+
+    public void addOrders(OrderStatus status, long count) {
+        ordersByStatus[status.ordinal()] += count;
+        orderCount += count;
+    }
+
+    public void addRevenue(double amount) {
+        revenue += amount;
+    }
+
+    public void addUnitsSold(String productId, long units) {
+        unitsSold.merge(productId, units, Long::sum);
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getOrderCount(OrderStatus status) {
+        return ordersByStatus[status.ordinal()];
+    }
+
+    public long getCompletedOrderCount() {
+        return getOrderCount(OrderStatus.DELIVERED);
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public double getAverageOrderValue() {
+        long completed = getCompletedOrderCount();
+        return completed == 0 ? 0 : revenue / completed;
+    }
+
+    public long getUnitsSold(String productId) {
+        return unitsSold.getOrDefault(productId, 0L);
+    }
+
+    public Map<String, Long> getTopSellingProducts(int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : unitsSold.entrySet()) {
+            if (entry.getValue() > 0) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return top;
+    }
+}
@@ -9,6 +9,7 @@ public class Driver extends User {
     private List<String> deliveryHistory;
     private double latitude;
     private double longitude;
+    private boolean hasLocation;
 
     public Driver(String userId, String name, String email, String password, String phone, double balance) {
         super(userId, name, email, password, phone, balance, UserRole.DRIVER);
@@ -18,7 +19,7 @@ public class Driver extends User {
         this.longitude = 0.0;
     }
 
-    public void acceptOrder(String orderId) {
+    public synchronized void acceptOrder(String orderId) {
         deliveryHistory.add(orderId);
         isAvailable = false;
     }
@@ -27,28 +28,33 @@ public class Driver extends User {
         System.out.println("Order " + orderId + " status updated to: " + status);
     }
 
-    public void updateLocation(double latitude, double longitude) {
+    public synchronized void updateLocation(double latitude, double longitude) {
         this.latitude = latitude;
         this.longitude = longitude;
+        this.hasLocation = true;
     }
 
-    public boolean isAvailable() {
+    public synchronized boolean hasLocation() {
+        return hasLocation;
+    }
+
+    public synchronized boolean isAvailable() {
         return isAvailable;
     }
 
-    public void setAvailable(boolean available) {
+    public synchronized void setAvailable(boolean available) {
         isAvailable = available;
     }
 
-    public List<String> getDeliveryHistory() {
+    public synchronized List<String> getDeliveryHistory() {
         return new ArrayList<>(deliveryHistory);
     }
 
-    public double getLatitude() {
+    public synchronized double getLatitude() {
         return latitude;
     }
 
-    public double getLongitude() {
+    public synchronized double getLongitude() {
         return longitude;
     }
 }
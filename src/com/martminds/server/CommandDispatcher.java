@@ -0,0 +1,387 @@
+package com.martminds.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import com.martminds.controller.AuthController;
+import com.martminds.controller.DriverController;
+import com.martminds.controller.OrderController;
+import com.martminds.controller.PaymentController;
+import com.martminds.enums.OrderStatus;
+import com.martminds.enums.PaymentMethod;
+import com.martminds.model.common.Address;
+import com.martminds.model.order.Order;
+import com.martminds.model.order.OrderItem;
+import com.martminds.model.payment.Payment;
+import com.martminds.model.product.Product;
+import com.martminds.model.user.User;
+import com.martminds.service.OrderService;
+import com.martminds.service.ProductService;
+import com.martminds.util.Logger;
+import com.martminds.util.RandomGenerator;
+import com.martminds.util.Session;
+import com.martminds.util.SessionRegistry;
+
+public class CommandDispatcher {
+    private final AuthController authController;
+    private final OrderController orderController;
+    private final PaymentController paymentController;
+    private final DriverController driverController;
+
+    public CommandDispatcher() {
+        this.authController = new AuthController();
+        this.orderController = new OrderController(OrderService.getInstance());
+        this.paymentController = new PaymentController();
+        this.driverController = new DriverController();
+    }
+
+    public void serve(BufferedReader in, PrintWriter out) throws IOException {
+        SessionRegistry registry = SessionRegistry.getInstance();
+        Session session = registry.createSession();
+        out.println("OK SESSION " + session.getSessionId());
+        out.flush();
+
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.equalsIgnoreCase("QUIT")) {
+                    out.println("OK BYE");
+                    out.flush();
+                    break;
+                }
+
+                if (registry.getSession(session.getSessionId()) == null) {
+                    session = registry.createSession();
+                    out.println("ERR Session expired, new session " + session.getSessionId());
+                }
+
+                String[] tokens = line.split("\\s+");
+                if (tokens[0].equalsIgnoreCase("SESSION") && tokens.length > 1) {
+                    Session resumed = registry.getSession(tokens[1]);
+                    if (resumed == null) {
+                        out.println("ERR Session not found: " + tokens[1]);
+                    } else {
+                        session = resumed;
+                        out.println("OK SESSION " + session.getSessionId());
+                    }
+                    out.flush();
+                    continue;
+                }
+
+                for (String response : execute(session, tokens)) {
+                    out.println(response);
+                }
+                out.flush();
+            }
+        } finally {
+            if (!session.isLoggedIn()) {
+                registry.removeSession(session.getSessionId());
+            }
+        }
+    }
+
+    public List<String> execute(Session session, String[] tokens) {
+        try {
+            return SessionRegistry.getInstance().callWithSession(session, () -> dispatch(tokens));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return error(e.getMessage());
+        } catch (Exception e) {
+            Logger.warning("Command failed: " + String.join(" ", tokens) + " - " + e.getMessage());
+            return error(e.getMessage());
+        }
+    }
+
+    private List<String> dispatch(String[] tokens) throws Exception {
+        String command = tokens[0].toUpperCase(Locale.ROOT);
+        String action = tokens.length > 1 ? tokens[1].toUpperCase(Locale.ROOT) : "";
+
+        switch (command) {
+            case "HELP":
+                return help();
+            case "LOGIN":
+                return login(tokens);
+            case "LOGOUT":
+                authController.logout();
+                return ok("LOGGED_OUT");
+            case "WHOAMI":
+                return whoami();
+            case "SESSION":
+                return ok("SESSION " + Session.getInstance().getSessionId());
+            case "ORDER":
+                return order(action, tokens);
+            case "PAY":
+                return pay(action, tokens);
+            case "DRIVER":
+                return driver(action, tokens);
+            default:
+                return error("Unknown command: " + tokens[0]);
+        }
+    }
+
+    private List<String> help() {
+        return lines("OK 17",
+                "LOGIN <email> <password>",
+                "LOGOUT",
+                "WHOAMI",
+                "SESSION [sessionId]",
+                "ORDER CREATE <storeId> <productId:qty>[,<productId:qty>...] [street|city|postalCode|district|province]",
+                "ORDER LIST",
+                "ORDER GET <orderId>",
+                "ORDER CANCEL <orderId>",
+                "PAY CREATE <orderId> <CASH|EWALLET|CREDIT_CARD> [details...]",
+                "PAY PROCESS <paymentId>",
+                "PAY CANCEL <paymentId>",
+                "PAY LIST",
+                "DRIVER AVAILABLE|MY",
+                "DRIVER ACCEPT <orderId>",
+                "DRIVER STATUS <orderId> <status>",
+                "DRIVER LOCATION <lat> <lon>",
+                "DRIVER PINGS <lat>,<lon>,<epochMillis> [...]");
+    }
+
+    private List<String> login(String[] tokens) {
+        requireArgs(tokens, 3, "LOGIN <email> <password>");
+        User user = authController.login(tokens[1], tokens[2]);
+        if (user == null) {
+            return error("Invalid email or password");
+        }
+        return ok(user.getUserId() + " " + user.getRole());
+    }
+
+    private List<String> whoami() {
+        Session session = Session.getInstance();
+        if (!session.isLoggedIn()) {
+            return ok("ANONYMOUS");
+        }
+        User user = session.getCurrentUser();
+        return ok(user.getUserId() + " " + user.getEmail() + " " + user.getRole());
+    }
+
+    private List<String> order(String action, String[] tokens) throws Exception {
+        switch (action) {
+            case "CREATE": {
+                requireArgs(tokens, 4, "ORDER CREATE <storeId> <productId:qty>[,<productId:qty>...] "
+                        + "[street|city|postalCode|district|province]");
+                Address address = tokens.length > 4
+                        ? parseAddress(String.join(" ", Arrays.copyOfRange(tokens, 4, tokens.length)))
+                        : Session.getInstance().isLoggedIn()
+                                ? Session.getInstance().getCurrentUser().getAddress()
+                                : null;
+                Order order = orderController.createOrder(tokens[2], parseItems(tokens[3]), address);
+                return ok(formatOrder(order));
+            }
+            case "LIST":
+                return orders(orderController.getMyOrders());
+            case "GET": {
+                requireArgs(tokens, 3, "ORDER GET <orderId>");
+                Order order = orderController.getOrderDetails(tokens[2]);
+                if (order == null) {
+                    return error("Order not found: " + tokens[2]);
+                }
+                Session session = Session.getInstance();
+                session.requireLogin();
+                if (!session.isAdmin() && !session.getCurrentUserId().equals(order.getCustomerId())
+                        && !session.getCurrentUserId().equals(order.getDriverId())) {
+                    return error("You are not authorized to view this order");
+                }
+                return ok(formatOrder(order));
+            }
+            case "CANCEL":
+                requireArgs(tokens, 3, "ORDER CANCEL <orderId>");
+                orderController.cancelOrder(tokens[2]);
+                return ok("CANCELLED " + tokens[2]);
+            default:
+                return error("Unknown ORDER action: " + action);
+        }
+    }
+
+    private List<String> pay(String action, String[] tokens) throws Exception {
+        switch (action) {
+            case "CREATE": {
+                requireArgs(tokens, 4, "PAY CREATE <orderId> <CASH|EWALLET|CREDIT_CARD> [details...]");
+                Order order = orderController.getOrderDetails(tokens[2]);
+                if (order == null) {
+                    return error("Order not found: " + tokens[2]);
+                }
+                PaymentMethod method = parseEnum(PaymentMethod.class, tokens[3]);
+                String[] details = Arrays.copyOfRange(tokens, 4, tokens.length);
+                Payment payment = paymentController.createPayment(Session.getInstance().getCurrentUserId(),
+                        order.getOrderId(), orderController.getCheckoutTotal(order), method, details);
+                return ok(formatPayment(payment));
+            }
+            case "PROCESS":
+                requireArgs(tokens, 3, "PAY PROCESS <paymentId>");
+                if (!paymentController.processPayment(tokens[2])) {
+                    return error("Payment processing failed: " + tokens[2]);
+                }
+                return ok(formatPayment(paymentController.getPaymentById(tokens[2])));
+            case "CANCEL":
+                requireArgs(tokens, 3, "PAY CANCEL <paymentId>");
+                if (!paymentController.cancelPayment(tokens[2])) {
+                    return error("Payment could not be cancelled: " + tokens[2]);
+                }
+                return ok("CANCELLED " + tokens[2]);
+            case "LIST": {
+                Session.getInstance().requireLogin();
+                List<Payment> payments = paymentController.getPaymentsByUser(Session.getInstance().getCurrentUserId());
+                List<String> response = new ArrayList<>();
+                response.add("OK " + payments.size());
+                for (Payment payment : payments) {
+                    response.add(formatPayment(payment));
+                }
+                return response;
+            }
+            default:
+                return error("Unknown PAY action: " + action);
+        }
+    }
+
+    private List<String> driver(String action, String[] tokens) throws Exception {
+        switch (action) {
+            case "AVAILABLE":
+                return orders(driverController.getAvailableOrders());
+            case "MY":
+                return orders(driverController.getMyDeliveries());
+            case "ACCEPT":
+                requireArgs(tokens, 3, "DRIVER ACCEPT <orderId>");
+                if (!driverController.acceptOrder(tokens[2])) {
+                    return error("Order could not be accepted: " + tokens[2]);
+                }
+                return ok("ACCEPTED " + tokens[2]);
+            case "STATUS": {
+                requireArgs(tokens, 4, "DRIVER STATUS <orderId> <status>");
+                OrderStatus status = parseEnum(OrderStatus.class, tokens[3]);
+                if (!driverController.updateDeliveryStatus(tokens[2], status)) {
+                    return error("Status could not be updated: " + tokens[2]);
+                }
+                return ok(tokens[2] + " " + status);
+            }
+            case "LOCATION":
+                requireArgs(tokens, 4, "DRIVER LOCATION <lat> <lon>");
+                if (!driverController.updateLocation(parseDouble(tokens[2]), parseDouble(tokens[3]))) {
+                    return error("Location could not be updated");
+                }
+                return ok("LOCATION " + tokens[2] + " " + tokens[3]);
+            case "PINGS":
+                return pings(tokens);
+            default:
+                return error("Unknown DRIVER action: " + action);
+        }
+    }
+
+    private List<String> pings(String[] tokens) {
+        requireArgs(tokens, 3, "DRIVER PINGS <lat>,<lon>,<epochMillis> [...]");
+        int count = tokens.length - 2;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            String[] parts = tokens[i + 2].split(",");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid ping: " + tokens[i + 2]);
+            }
+            latitudes[i] = parseDouble(parts[0]);
+            longitudes[i] = parseDouble(parts[1]);
+            try {
+                timestamps[i] = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid timestamp: " + parts[2]);
+            }
+        }
+        int accepted = driverController.updateLocations(latitudes, longitudes, timestamps, count);
+        return ok("PINGS " + accepted + "/" + count + " QUEUED");
+    }
+
+    private List<OrderItem> parseItems(String spec) throws Exception {
+        List<OrderItem> items = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid item: " + entry);
+            }
+            Product product = ProductService.getInstance().getProductById(parts[0]);
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + parts[0]);
+            }
+            int quantity;
+            try {
+                quantity = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid quantity: " + parts[1]);
+            }
+            items.add(new OrderItem(RandomGenerator.generateId(), product.getProductId(), product.getName(),
+                    quantity, product.getPrice()));
+        }
+        return items;
+    }
+
+    private Address parseAddress(String spec) {
+        String[] parts = spec.split("\\|", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Address must be street|city|postalCode|district|province");
+        }
+        return new Address(parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(), parts[4].trim());
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + value);
+        }
+    }
+
+    private double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+    private void requireArgs(String[] tokens, int count, String usage) {
+        if (tokens.length < count) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    private List<String> orders(List<Order> orders) {
+        List<String> response = new ArrayList<>();
+        response.add("OK " + orders.size());
+        for (Order order : orders) {
+            response.add(formatOrder(order));
+        }
+        return response;
+    }
+
+    private String formatOrder(Order order) {
+        return String.format(Locale.ROOT, "%s %s %.2f %d %s", order.getOrderId(), order.getStatus(),
+                order.getTotalPrice(), order.getItemCount(), order.getDriverId() != null ? order.getDriverId() : "-");
+    }
+
+    private String formatPayment(Payment payment) {
+        return String.format(Locale.ROOT, "%s %s %s %s %.2f", payment.getPaymentId(), payment.getOrderId(),
+                payment.getMethod(), payment.getStatus(), payment.getAmount());
+    }
+
+    private List<String> ok(String message) {
+        return lines("OK " + message);
+    }
+
+    private List<String> error(String message) {
+        return lines("ERR " + message);
+    }
+
+    private List<String> lines(String... lines) {
+        return new ArrayList<>(Arrays.asList(lines));
+    }
+}
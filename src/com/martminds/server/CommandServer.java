@@ -0,0 +1,152 @@
+package com.martminds.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.martminds.util.Logger;
+
+public class CommandServer {
+    private static final int DEFAULT_MAX_CONNECTIONS = 1024;
+    private static final int DEFAULT_BACKLOG = 256;
+    private static final int DEFAULT_IDLE_TIMEOUT_MS = 10 * 60 * 1000;
+
+    private final int port;
+    private final CommandDispatcher dispatcher;
+    private final Semaphore connectionPermits;
+    private final Set<Socket> clients;
+    private final AtomicInteger activeConnections;
+    private final AtomicInteger threadCount;
+    private volatile ServerSocket serverSocket;
+    private volatile Thread acceptor;
+
+    public CommandServer(int port) {
+        this(port, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public CommandServer(int port, int maxConnections) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid port: " + port);
+        }
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Connection limit must be greater than 0");
+        }
+        this.port = port;
+        this.dispatcher = new CommandDispatcher();
+        this.connectionPermits = new Semaphore(maxConnections);
+        this.clients = ConcurrentHashMap.newKeySet();
+        this.activeConnections = new AtomicInteger();
+        this.threadCount = new AtomicInteger();
+    }
+
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        serverSocket = new ServerSocket(port, DEFAULT_BACKLOG, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "command-acceptor");
+        acceptor.start();
+        Logger.info("Command server listening on port " + getPort());
+    }
+
+    private void acceptLoop() {
+        ServerSocket socket = serverSocket;
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                if (!connectionPermits.tryAcquire()) {
+                    Logger.warning("Command server busy, rejecting connection from " + client.getRemoteSocketAddress());
+                    reject(client);
+                    continue;
+                }
+                Thread thread = new Thread(() -> handle(client), "command-connection-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (SocketException e) {
+                if (!socket.isClosed()) {
+                    Logger.error("Command server socket error: " + e.getMessage());
+                }
+            } catch (IOException e) {
+                Logger.error("Failed to accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        activeConnections.incrementAndGet();
+        clients.add(client);
+        try (Socket socket = client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(DEFAULT_IDLE_TIMEOUT_MS);
+            dispatcher.serve(in, out);
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                Logger.warning("Connection closed: " + e.getMessage());
+            }
+        } finally {
+            clients.remove(client);
+            activeConnections.decrementAndGet();
+            connectionPermits.release();
+        }
+    }
+
+    private void reject(Socket client) {
+        try (Socket socket = client;
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.println("ERR Server busy");
+        } catch (IOException e) {
+            Logger.warning("Failed to reject connection: " + e.getMessage());
+        }
+    }
+
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket != null ? socket.getLocalPort() : port;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        Thread thread = acceptor;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    public synchronized void stop() {
+        ServerSocket socket = serverSocket;
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            Logger.error("Failed to close command server: " + e.getMessage());
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                Logger.warning("Failed to close connection: " + e.getMessage());
+            }
+        }
+        Logger.info("Command server stopped");
+    }
+}
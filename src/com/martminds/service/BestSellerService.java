@@ -0,0 +1,75 @@
+package com.martminds.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.martminds.enums.OrderStatus;
+import com.martminds.model.order.Order;
+import com.martminds.model.order.OrderItem;
+import com.martminds.util.DateTimeUtil;
+import com.martminds.util.SpaceSavingSketch;
+
+public class BestSellerService {
+    private static final int SKETCH_CAPACITY = 256;
+    private static final Duration RETENTION = Duration.ofDays(7);
+
+    private final SpaceSavingSketch<String> allTime;
+    private final ConcurrentNavigableMap<LocalDateTime, SpaceSavingSketch<String>> hourly;
+
+    private static class Holder {
+        private static final BestSellerService INSTANCE = new BestSellerService();
+    }
+
+    private BestSellerService() {
+        this.allTime = new SpaceSavingSketch<>(SKETCH_CAPACITY);
+        this.hourly = new ConcurrentSkipListMap<>();
+    }
+
+    public static BestSellerService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void recordOrder(Order order) {
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            return;
+        }
+
+        LocalDateTime hour = order.getCreatedAt().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime oldest = DateTimeUtil.now().truncatedTo(ChronoUnit.HOURS).minus(RETENTION);
+        SpaceSavingSketch<String> bucket = hour.isBefore(oldest)
+                ? null
+                : hourly.computeIfAbsent(hour, h -> new SpaceSavingSketch<>(SKETCH_CAPACITY));
+
+        for (OrderItem item : order.getItems()) {
+            allTime.offer(item.getProductId(), item.getQuantity());
+            if (bucket != null) {
+                bucket.offer(item.getProductId(), item.getQuantity());
+            }
+        }
+        hourly.headMap(oldest, false).clear();
+    }
+
+    public Map<String, Long> getTopSellers(int limit) {
+        return allTime.top(limit);
+    }
+
+    public Map<String, Long> getTopSellers(int limit, Duration window) {
+        if (window == null) {
+            return getTopSellers(limit);
+        }
+        if (window.compareTo(RETENTION) > 0) {
+            throw new IllegalArgumentException("Window cannot exceed " + RETENTION.toDays() + " days");
+        }
+
+        LocalDateTime from = DateTimeUtil.now().minus(window).truncatedTo(ChronoUnit.HOURS);
+        SpaceSavingSketch<String> merged = new SpaceSavingSketch<>(SKETCH_CAPACITY);
+        for (SpaceSavingSketch<String> bucket : hourly.tailMap(from, true).values()) {
+            bucket.mergeInto(merged);
+        }
+        return merged.top(limit);
+    }
+}
@@ -0,0 +1,94 @@
+package com.martminds.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.martminds.enums.OrderStatus;
+import com.martminds.model.order.Order;
+import com.martminds.util.Logger;
+
+public class DispatchService {
+    private static final long DEFAULT_WINDOW_MS = 2000;
+
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> dispatchTask;
+    private volatile long windowMs;
+
+    private static class Holder {
+        private static final DispatchService INSTANCE = new DispatchService();
+    }
+
+    private DispatchService() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.windowMs = DEFAULT_WINDOW_MS;
+    }
+
+    public static DispatchService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public synchronized void start(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Dispatch window must be greater than 0");
+        }
+        stop();
+        this.windowMs = windowMillis;
+        dispatchTask = executor.scheduleWithFixedDelay(this::dispatchQuietly, windowMillis, windowMillis,
+                TimeUnit.MILLISECONDS);
+        Logger.info("Batch dispatch started with a " + windowMillis + " ms window");
+    }
+
+    public synchronized void stop() {
+        if (dispatchTask != null) {
+            dispatchTask.cancel(false);
+            dispatchTask = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return dispatchTask != null;
+    }
+
+    public long getWindow() {
+        return windowMs;
+    }
+
+    public List<Order> getPendingOrders() {
+        List<Order> pending = new ArrayList<>();
+        for (Order order : OrderService.getInstance().getOrdersByStatus(OrderStatus.READY_FOR_PICKUP)) {
+            if (order.getDriverId() == null) {
+                pending.add(order);
+            }
+        }
+        pending.sort(Comparator.comparing(Order::getCreatedAt));
+        return pending;
+    }
+
+    public Map<String, String> dispatchPending() {
+        List<Order> pending = getPendingOrders();
+        if (pending.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> assignments = DriverService.getInstance().assignDrivers(pending);
+        Logger.info("Batch dispatch assigned " + assignments.size() + " of " + pending.size() + " pending orders");
+        return assignments;
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatchPending();
+        } catch (RuntimeException e) {
+            Logger.error("Batch dispatch failed - " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.martminds.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.martminds.model.common.Address;
+import com.martminds.model.store.Store;
+import com.martminds.util.GeoPoint;
+
+public class DistanceService {
+    public static final double UNKNOWN_DISTANCE = -1;
+
+    private static final double ROAD_DISTANCE_FACTOR = 1.3;
+    private static final int DISTANCE_CACHE_CAPACITY = 4096;
+
+    private final GeocodingService geocoder;
+    private final Map<String, Double> distanceCache;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+
+    private static class Holder {
+        private static final DistanceService INSTANCE = new DistanceService();
+    }
+
+    private DistanceService() {
+        this.geocoder = GeocodingService.getInstance();
+        this.distanceCache = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                return size() > DISTANCE_CACHE_CAPACITY;
+            }
+        };
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+    }
+
+    public static DistanceService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public double getDeliveryDistanceKm(String storeId, Address deliveryAddress) {
+        Store store = storeId != null ? StoreService.getInstance().getStoreById(storeId) : null;
+        if (store == null || deliveryAddress == null) {
+            return UNKNOWN_DISTANCE;
+        }
+        GeoPoint pickup = geocoder.geocode(store.getAddress());
+        if (pickup == null) {
+            return UNKNOWN_DISTANCE;
+        }
+        if (deliveryAddress.hasCoordinates()) {
+            return routeDistanceKm(pickup, geocoder.geocode(deliveryAddress));
+        }
+
+        String cacheKey = key(store.getStoreId()) + "|" + deliveryAddress.getNormalizedKey();
+        Double cached;
+        synchronized (distanceCache) {
+            cached = distanceCache.get(cacheKey);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+
+        GeoPoint dropoff = geocoder.geocode(deliveryAddress);
+        double distance = dropoff == null ? UNKNOWN_DISTANCE : routeDistanceKm(pickup, dropoff);
+        synchronized (distanceCache) {
+            distanceCache.put(cacheKey, distance);
+        }
+        return distance;
+    }
+
+    private static String key(String storeId) {
+        return storeId.toUpperCase(Locale.ROOT);
+    }
+
+    private double routeDistanceKm(GeoPoint from, GeoPoint to) {
+        return from.distanceKm(to) * ROAD_DISTANCE_FACTOR;
+    }
+
+    public void invalidateStore(String storeId) {
+        if (storeId == null) {
+            return;
+        }
+        String prefix = key(storeId) + "|";
+        synchronized (distanceCache) {
+            distanceCache.keySet().removeIf(cacheKey -> cacheKey.startsWith(prefix));
+        }
+    }
+
+    public void clearCache() {
+        synchronized (distanceCache) {
+            distanceCache.clear();
+        }
+    }
+
+    public int getCacheSize() {
+        synchronized (distanceCache) {
+            return distanceCache.size();
+        }
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+}
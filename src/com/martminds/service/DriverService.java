@@ -6,29 +6,43 @@ import java.util.stream.Collectors;
 import com.martminds.enums.OrderStatus;
 import com.martminds.exception.InvalidOrderException;
 import com.martminds.model.order.Order;
+import com.martminds.model.store.Store;
 import com.martminds.model.user.Driver;
 import com.martminds.model.user.User;
+import com.martminds.util.AssignmentSolver;
+import com.martminds.util.GeoGridIndex;
+import com.martminds.util.GeoPoint;
+import com.martminds.util.Logger;
+import com.martminds.util.ValidationUtil;
 
 public class DriverService {
-    private static DriverService instance;
-    private UserService userService;
+    private static final double DISPATCH_CELL_DEGREES = 0.01;
+    private static final double MAX_DISPATCH_DISTANCE_KM = 50.0;
+    private static final int DISPATCH_CANDIDATES = 5;
+    private static final int MAX_BATCH_CANDIDATES = 64;
+    private static final int MAX_OPTIMAL_BATCH = 64;
+
+    private final UserService userService;
+    private final GeoGridIndex<String> dispatchIndex;
+
+    private static class Holder {
+        private static final DriverService INSTANCE = new DriverService();
+    }
 
     private DriverService() {
         this.userService = UserService.getInstance();
+        this.dispatchIndex = new GeoGridIndex<>(DISPATCH_CELL_DEGREES);
+        for (Driver driver : userService.getAllDrivers()) {
+            refreshDispatchIndex(driver);
+        }
     }
 
     public static DriverService getInstance() {
-        if (instance == null) {
-            instance = new DriverService();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     public List<Driver> getAllDrivers() {
-        return userService.getAllUsers().stream()
-                .filter(user -> user instanceof Driver)
-                .map(user -> (Driver) user)
-                .collect(Collectors.toList());
+        return userService.getAllDrivers();
     }
 
     public List<Driver> getAvailableDrivers() {
@@ -56,22 +70,14 @@ public class DriverService {
             return stats;
         }
 
-        List<Order> allOrders = OrderService.getInstance().getAllOrders();
-        List<Order> driverOrders = allOrders.stream()
-                .filter(order -> driverId.equals(order.getDriverId()))
-                .collect(Collectors.toList());
-
-        int total = driverOrders.size();
-        long completed = driverOrders.stream()
-                .filter(order -> order.getStatus() == OrderStatus.DELIVERED)
-                .count();
-        long inProgress = driverOrders.stream()
-                .filter(order -> order.getStatus() == OrderStatus.OUT_FOR_DELIVERY)
-                .count();
+        OrderService orderService = OrderService.getInstance();
+        int total = orderService.countOrdersByDriver(driverId);
+        int completed = orderService.countOrdersByDriver(driverId, OrderStatus.DELIVERED);
+        int inProgress = orderService.countOrdersByDriver(driverId, OrderStatus.OUT_FOR_DELIVERY);
 
         stats.put("total_deliveries", total);
-        stats.put("completed", (int) completed);
-        stats.put("in_progress", (int) inProgress);
+        stats.put("completed", completed);
+        stats.put("in_progress", inProgress);
 
         return stats;
     }
@@ -111,21 +117,175 @@ public class DriverService {
         return availableDrivers.get(0);
     }
 
-    public boolean autoAssignDriver(String orderId) throws InvalidOrderException {
-        Driver driver = findBestAvailableDriver();
+    public Driver findBestAvailableDriver(String storeId) {
+        List<Driver> nearest = findNearestAvailableDrivers(storeId, 1);
+        return nearest.isEmpty() ? findBestAvailableDriver() : nearest.get(0);
+    }
+
+    public List<Driver> findNearestAvailableDrivers(String storeId, int limit) {
+        GeoPoint pickup = getPickupLocation(storeId);
+        if (pickup == null) {
+            return new ArrayList<>();
+        }
+        return findNearestAvailableDrivers(pickup.getLatitude(), pickup.getLongitude(), limit);
+    }
+
+    public List<Driver> findNearestAvailableDrivers(double latitude, double longitude, int limit) {
+        List<Driver> drivers = new ArrayList<>();
+        for (GeoGridIndex.Match<String> match : dispatchIndex.nearest(latitude, longitude, limit,
+                MAX_DISPATCH_DISTANCE_KM, this::isDispatchable)) {
+            Driver driver = getDriverById(match.getKey());
+            if (driver != null) {
+                drivers.add(driver);
+            }
+        }
+        return drivers;
+    }
+
+    private GeoPoint getPickupLocation(String storeId) {
+        Store store = storeId != null ? StoreService.getInstance().getStoreById(storeId) : null;
+        return store != null ? GeocodingService.getInstance().geocode(store.getAddress()) : null;
+    }
+
+    private boolean isDispatchable(String driverId) {
+        Driver driver = getDriverById(driverId);
+        return driver != null && driver.isAvailable();
+    }
 
+    public boolean updateDriverLocation(String driverId, double latitude, double longitude) {
+        if (!ValidationUtil.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+
+        Driver driver = getDriverById(driverId);
         if (driver == null) {
             return false;
         }
 
+        synchronized (driver) {
+            driver.updateLocation(latitude, longitude);
+            refreshDispatchIndex(driver);
+        }
+        return true;
+    }
+
+    public void refreshDispatchIndex(Driver driver) {
+        synchronized (driver) {
+            if (driver.isAvailable() && driver.hasLocation()) {
+                dispatchIndex.put(driver.getUserId(), driver.getLatitude(), driver.getLongitude());
+            } else {
+                dispatchIndex.remove(driver.getUserId());
+            }
+        }
+    }
+
+    public boolean autoAssignDriver(String orderId) throws InvalidOrderException {
         Order order = OrderService.getInstance().findOrderById(orderId);
         if (order == null || order.getDriverId() != null) {
             return false;
         }
 
-        order.assignDriver(driver.getUserId());
-        driver.acceptOrder(orderId);
-        return true;
+        for (Driver driver : findNearestAvailableDrivers(order.getStoreId(), DISPATCH_CANDIDATES)) {
+            if (assign(order, driver)) {
+                return true;
+            }
+        }
+        if (order.getDriverId() != null) {
+            return false;
+        }
+        for (Driver driver : getAvailableDrivers()) {
+            if (assign(order, driver)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public Map<String, String> assignDrivers(List<Order> orders) {
+        Map<String, String> assignments = new LinkedHashMap<>();
+        List<Order> located = new ArrayList<>();
+        List<List<GeoGridIndex.Match<String>>> locatedCandidates = new ArrayList<>();
+        List<Order> unlocated = new ArrayList<>();
+        Map<String, List<GeoGridIndex.Match<String>>> candidatesByStore = new HashMap<>();
+        int candidateLimit = Math.min(orders.size() + DISPATCH_CANDIDATES, MAX_BATCH_CANDIDATES);
+
+        for (Order order : orders) {
+            if (order.getDriverId() != null) {
+                continue;
+            }
+            GeoPoint pickup = getPickupLocation(order.getStoreId());
+            if (pickup == null) {
+                unlocated.add(order);
+                continue;
+            }
+            located.add(order);
+            locatedCandidates.add(candidatesByStore.computeIfAbsent(order.getStoreId().toUpperCase(Locale.ROOT),
+                    id -> dispatchIndex.nearest(pickup.getLatitude(), pickup.getLongitude(), candidateLimit,
+                            MAX_DISPATCH_DISTANCE_KM, this::isDispatchable)));
+        }
+
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (List<GeoGridIndex.Match<String>> matches : candidatesByStore.values()) {
+            for (GeoGridIndex.Match<String> match : matches) {
+                columns.putIfAbsent(match.getKey(), columns.size());
+            }
+        }
+        List<String> driverIds = new ArrayList<>(columns.keySet());
+
+        if (!located.isEmpty() && !driverIds.isEmpty()) {
+            double[][] cost = new double[located.size()][driverIds.size()];
+            for (int i = 0; i < located.size(); i++) {
+                Arrays.fill(cost[i], Double.POSITIVE_INFINITY);
+                for (GeoGridIndex.Match<String> match : locatedCandidates.get(i)) {
+                    cost[i][columns.get(match.getKey())] = match.getDistanceKm();
+                }
+            }
+
+            int[] solution = AssignmentSolver.solve(cost, MAX_OPTIMAL_BATCH);
+            for (int i = 0; i < located.size(); i++) {
+                Order order = located.get(i);
+                Driver driver = solution[i] != AssignmentSolver.UNASSIGNED
+                        ? getDriverById(driverIds.get(solution[i]))
+                        : null;
+                if (driver != null && assign(order, driver)) {
+                    assignments.put(order.getOrderId(), driver.getUserId());
+                } else {
+                    unlocated.add(order);
+                }
+            }
+        } else {
+            unlocated.addAll(located);
+        }
+
+        for (Order order : unlocated) {
+            try {
+                if (autoAssignDriver(order.getOrderId())) {
+                    assignments.put(order.getOrderId(), order.getDriverId());
+                }
+            } catch (InvalidOrderException e) {
+                Logger.warning("Failed to dispatch order " + order.getOrderId() + ": " + e.getMessage());
+            }
+        }
+
+        return assignments;
+    }
+
+    private boolean assign(Order order, Driver driver) {
+        synchronized (driver) {
+            if (!driver.isAvailable() || order.getDriverId() != null) {
+                return false;
+            }
+            try {
+                OrderService.getInstance().assignDriver(order.getOrderId(), driver.getUserId());
+            } catch (InvalidOrderException e) {
+                Logger.warning("Failed to assign order " + order.getOrderId() + ": " + e.getMessage());
+                return false;
+            }
+            driver.acceptOrder(order.getOrderId());
+            refreshDispatchIndex(driver);
+            return true;
+        }
     }
 
     public boolean toggleDriverAvailability(String driverId) {
@@ -134,27 +294,32 @@ public class DriverService {
             return false;
         }
 
-        driver.setAvailable(!driver.isAvailable());
+        synchronized (driver) {
+            driver.setAvailable(!driver.isAvailable());
+            refreshDispatchIndex(driver);
+        }
         return true;
     }
 
     public List<Order> getDriverDeliveries(String driverId) {
-        return OrderService.getInstance().getAllOrders().stream()
-                .filter(order -> driverId.equals(order.getDriverId()))
-                .collect(Collectors.toList());
+        return OrderService.getInstance().getOrdersByDriver(driverId);
     }
 
     public Map<String, Object> getAllDriversStatistics() {
         Map<String, Object> summary = new HashMap<>();
         List<Driver> allDrivers = getAllDrivers();
 
-        summary.put("total_drivers", allDrivers.size());
-        summary.put("available_drivers", getAvailableDrivers().size());
-
+        int availableDrivers = 0;
         int totalDeliveries = 0;
         for (Driver driver : allDrivers) {
-            totalDeliveries += getDriverStatistics(driver.getUserId()).get("total_deliveries");
+            if (driver.isAvailable()) {
+                availableDrivers++;
+            }
+            totalDeliveries += OrderService.getInstance().countOrdersByDriver(driver.getUserId());
         }
+
+        summary.put("total_drivers", allDrivers.size());
+        summary.put("available_drivers", availableDrivers);
         summary.put("total_deliveries", totalDeliveries);
 
         return summary;
@@ -0,0 +1,156 @@
+package com.martminds.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.martminds.model.common.Address;
+import com.martminds.util.CSVReader;
+import com.martminds.util.FileHandler;
+import com.martminds.util.GeoPoint;
+import com.martminds.util.Logger;
+import com.martminds.util.ValidationUtil;
+
+public class GeocodingService {
+    private static final String CENTROID_FILE = "postal_centroids.csv";
+    private static final int GEOCODE_CACHE_CAPACITY = 8192;
+    private static final GeoPoint UNRESOLVED = new GeoPoint(0, 0);
+
+    private final Map<String, GeoPoint> postalCentroids;
+    private final Map<String, GeoPoint> districtCentroids;
+    private final Map<String, GeoPoint> cityCentroids;
+    private final Map<String, GeoPoint> geocodeCache;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+
+    private static final class Centroid {
+        private double latitude;
+        private double longitude;
+        private int count;
+
+        private void add(double latitude, double longitude) {
+            count++;
+            this.latitude += (latitude - this.latitude) / count;
+            this.longitude += (longitude - this.longitude) / count;
+        }
+
+        private GeoPoint toPoint() {
+            return new GeoPoint(latitude, longitude);
+        }
+    }
+
+    private static class Holder {
+        private static final GeocodingService INSTANCE = new GeocodingService();
+    }
+
+    private GeocodingService() {
+        this.postalCentroids = new HashMap<>();
+        this.districtCentroids = new HashMap<>();
+        this.cityCentroids = new HashMap<>();
+        this.geocodeCache = new LinkedHashMap<String, GeoPoint>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GeoPoint> eldest) {
+                return size() > GEOCODE_CACHE_CAPACITY;
+            }
+        };
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+        loadCentroids();
+    }
+
+    public static GeocodingService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private void loadCentroids() {
+        Map<String, Centroid> districts = new HashMap<>();
+        Map<String, Centroid> cities = new HashMap<>();
+        FileHandler.forEachRecord(CENTROID_FILE, record -> loadCentroidRecord(record, districts, cities));
+        districts.forEach((district, centroid) -> districtCentroids.put(district, centroid.toPoint()));
+        cities.forEach((city, centroid) -> cityCentroids.put(city, centroid.toPoint()));
+        Logger.info("Loaded " + postalCentroids.size() + " postal code centroids");
+    }
+
+    private void loadCentroidRecord(CSVReader record, Map<String, Centroid> districts, Map<String, Centroid> cities) {
+        if (record.getFieldCount() < 5) {
+            return;
+        }
+        try {
+            double latitude = record.getDouble(3);
+            double longitude = record.getDouble(4);
+            if (!ValidationUtil.isValidCoordinate(latitude, longitude)) {
+                Logger.warning("Skipping centroid with invalid coordinates at line " + record.getLineNumber());
+                return;
+            }
+            postalCentroids.put(Address.normalize(record.getString(0)), new GeoPoint(latitude, longitude));
+            addToCentroid(districts, Address.normalize(record.getString(1)), latitude, longitude);
+            addToCentroid(cities, Address.normalize(record.getString(2)), latitude, longitude);
+        } catch (IllegalArgumentException e) {
+            Logger.warning("Skipping malformed centroid at line " + record.getLineNumber() + ": " + e.getMessage());
+        }
+    }
+
+    private void addToCentroid(Map<String, Centroid> centroids, String key, double latitude, double longitude) {
+        if (!key.isEmpty()) {
+            centroids.computeIfAbsent(key, k -> new Centroid()).add(latitude, longitude);
+        }
+    }
+
+    public GeoPoint geocode(Address address) {
+        if (address == null) {
+            return null;
+        }
+        if (address.hasCoordinates()) {
+            return new GeoPoint(address.getLatitude(), address.getLongitude());
+        }
+
+        String key = address.getNormalizedKey();
+        GeoPoint point;
+        synchronized (geocodeCache) {
+            point = geocodeCache.get(key);
+        }
+        if (point != null) {
+            cacheHits.increment();
+            return point == UNRESOLVED ? null : point;
+        }
+        cacheMisses.increment();
+
+        point = lookup(address);
+        synchronized (geocodeCache) {
+            geocodeCache.put(key, point != null ? point : UNRESOLVED);
+        }
+        return point;
+    }
+
+    private GeoPoint lookup(Address address) {
+        GeoPoint point = postalCentroids.get(Address.normalize(address.getPostalCode()));
+        if (point == null) {
+            point = districtCentroids.get(Address.normalize(address.getDistrict()));
+        }
+        if (point == null) {
+            point = cityCentroids.get(Address.normalize(address.getCity()));
+        }
+        return point;
+    }
+
+    public void clearCache() {
+        synchronized (geocodeCache) {
+            geocodeCache.clear();
+        }
+    }
+
+    public int getCacheSize() {
+        synchronized (geocodeCache) {
+            return geocodeCache.size();
+        }
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+}
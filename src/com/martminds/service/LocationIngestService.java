@@ -0,0 +1,191 @@
+package com.martminds.service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.martminds.util.LocationTrack;
+import com.martminds.util.Logger;
+import com.martminds.util.ValidationUtil;
+
+public class LocationIngestService {
+    private static final int TRACK_CAPACITY = 64;
+    private static final long DEFAULT_PUBLISH_INTERVAL_MS = 100;
+    private static final long MAX_CLOCK_SKEW_MS = 5000;
+
+    private final Map<String, LocationTrack> tracks;
+    private final Queue<String> unpublished;
+    private final ScheduledExecutorService executor;
+    private final LongAdder acceptedPings;
+    private final LongAdder rejectedPings;
+    private final LongAdder futurePings;
+    private ScheduledFuture<?> publishTask;
+    private volatile long publishIntervalMs;
+
+    private static class Holder {
+        private static final LocationIngestService INSTANCE = new LocationIngestService();
+    }
+
+    private LocationIngestService() {
+        this.tracks = new ConcurrentHashMap<>();
+        this.unpublished = new ConcurrentLinkedQueue<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptedPings = new LongAdder();
+        this.rejectedPings = new LongAdder();
+        this.futurePings = new LongAdder();
+        setPublishInterval(DEFAULT_PUBLISH_INTERVAL_MS);
+    }
+
+    public static LocationIngestService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean ingest(String driverId, double latitude, double longitude, long timestamp) {
+        LocationTrack track = append(driverId, latitude, longitude, timestamp);
+        if (track == null) {
+            return false;
+        }
+        if (track.markDirty()) {
+            unpublished.add(driverId);
+            if (publishIntervalMs <= 0) {
+                publish();
+            }
+        }
+        return true;
+    }
+
+    public boolean ingestAndPublish(String driverId, double latitude, double longitude, long timestamp) {
+        LocationTrack track = append(driverId, latitude, longitude, timestamp);
+        if (track == null) {
+            return false;
+        }
+        double latestLatitude;
+        double latestLongitude;
+        synchronized (track) {
+            latestLatitude = track.getLatestLatitude();
+            latestLongitude = track.getLatestLongitude();
+        }
+        return DriverService.getInstance().updateDriverLocation(driverId, latestLatitude, latestLongitude);
+    }
+
+    private LocationTrack append(String driverId, double latitude, double longitude, long timestamp) {
+        long now = System.currentTimeMillis();
+        if (timestamp > now + MAX_CLOCK_SKEW_MS) {
+            futurePings.increment();
+            rejectedPings.increment();
+            return null;
+        }
+        LocationTrack track = trackFor(driverId);
+        if (track == null || !ValidationUtil.isValidCoordinate(latitude, longitude)
+                || !track.append(latitude, longitude, timestamp, now)) {
+            rejectedPings.increment();
+            return null;
+        }
+        acceptedPings.increment();
+        return track;
+    }
+
+    public int ingestBatch(String[] driverIds, double[] latitudes, double[] longitudes, long[] timestamps,
+            int count) {
+        if (count < 0 || count > driverIds.length || count > latitudes.length || count > longitudes.length
+                || count > timestamps.length) {
+            throw new IllegalArgumentException("Invalid batch size: " + count);
+        }
+        int accepted = 0;
+        for (int i = 0; i < count; i++) {
+            if (ingest(driverIds[i], latitudes[i], longitudes[i], timestamps[i])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private LocationTrack trackFor(String driverId) {
+        if (driverId == null) {
+            return null;
+        }
+        LocationTrack track = tracks.get(driverId);
+        if (track != null) {
+            return track;
+        }
+        if (DriverService.getInstance().getDriverById(driverId) == null) {
+            return null;
+        }
+        return tracks.computeIfAbsent(driverId, id -> new LocationTrack(TRACK_CAPACITY));
+    }
+
+    public LocationTrack getTrack(String driverId) {
+        return tracks.get(driverId);
+    }
+
+    public synchronized int publish() {
+        int published = 0;
+        String driverId;
+        while ((driverId = unpublished.poll()) != null) {
+            LocationTrack track = tracks.get(driverId);
+            double latitude;
+            double longitude;
+            synchronized (track) {
+                track.clearDirty();
+                latitude = track.getLatestLatitude();
+                longitude = track.getLatestLongitude();
+            }
+            try {
+                if (DriverService.getInstance().updateDriverLocation(driverId, latitude, longitude)) {
+                    published++;
+                }
+            } catch (RuntimeException e) {
+                Logger.error("Failed to publish location for " + driverId + " - " + e.getMessage());
+            }
+        }
+        return published;
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            Logger.error("Location publish failed - " + e.getMessage());
+        }
+    }
+
+    public synchronized void setPublishInterval(long millis) {
+        this.publishIntervalMs = millis;
+        if (publishTask != null) {
+            publishTask.cancel(false);
+            publishTask = null;
+        }
+        if (millis > 0) {
+            publishTask = executor.scheduleWithFixedDelay(this::publishQuietly, millis, millis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            publish();
+        }
+    }
+
+    public long getPublishInterval() {
+        return publishIntervalMs;
+    }
+
+    public long getAcceptedPings() {
+        return acceptedPings.sum();
+    }
+
+    public long getRejectedPings() {
+        return rejectedPings.sum();
+    }
+
+    public long getFuturePings() {
+        return futurePings.sum();
+    }
+}
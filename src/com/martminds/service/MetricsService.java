@@ -0,0 +1,185 @@
+package com.martminds.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.martminds.enums.OrderStatus;
+import com.martminds.enums.PaymentMethod;
+import com.martminds.enums.PaymentStatus;
+import com.martminds.model.order.Order;
+import com.martminds.model.order.OrderItem;
+import com.martminds.model.payment.Payment;
+import com.martminds.model.report.PaymentSummary;
+import com.martminds.model.report.SalesSummary;
+
+public class MetricsService {
+    private final LongAdder totalOrders;
+    private final Map<OrderStatus, LongAdder> ordersByStatus;
+    private final DoubleAdder deliveredRevenue;
+    private final Map<String, LongAdder> unitsSoldByProduct;
+    private final LongAdder totalPayments;
+    private final Map<PaymentStatus, LongAdder> paymentsByStatus;
+    private final DoubleAdder successfulPaymentAmount;
+    private final Map<PaymentMethod, LongAdder> successfulPaymentsByMethod;
+    private final Map<PaymentMethod, DoubleAdder> successfulAmountByMethod;
+
+    private static class Holder {
+        private static final MetricsService INSTANCE = new MetricsService();
+    }
+
+    private MetricsService() {
+        this.totalOrders = new LongAdder();
+        this.ordersByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, new LongAdder());
+        }
+        this.deliveredRevenue = new DoubleAdder();
+        this.unitsSoldByProduct = new ConcurrentHashMap<>();
+        this.totalPayments = new LongAdder();
+        this.paymentsByStatus = new EnumMap<>(PaymentStatus.class);
+        for (PaymentStatus status : PaymentStatus.values()) {
+            paymentsByStatus.put(status, new LongAdder());
+        }
+        this.successfulPaymentAmount = new DoubleAdder();
+        this.successfulPaymentsByMethod = new EnumMap<>(PaymentMethod.class);
+        this.successfulAmountByMethod = new EnumMap<>(PaymentMethod.class);
+        for (PaymentMethod method : PaymentMethod.values()) {
+            successfulPaymentsByMethod.put(method, new LongAdder());
+            successfulAmountByMethod.put(method, new DoubleAdder());
+        }
+    }
+
+    public static MetricsService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void recordOrderCreated(Order order) {
+        totalOrders.increment();
+        enterOrderStatus(order, order.getStatus());
+    }
+
+    public void recordOrderStatusChange(Order order, OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus()) {
+            return;
+        }
+        leaveOrderStatus(order, previousStatus);
+        enterOrderStatus(order, order.getStatus());
+    }
+
+    private void enterOrderStatus(Order order, OrderStatus status) {
+        ordersByStatus.get(status).increment();
+        if (status == OrderStatus.DELIVERED) {
+            deliveredRevenue.add(order.getTotalPrice());
+            addUnitsSold(order, 1);
+        }
+    }
+
+    private void leaveOrderStatus(Order order, OrderStatus status) {
+        ordersByStatus.get(status).decrement();
+        if (status == OrderStatus.DELIVERED) {
+            deliveredRevenue.add(-order.getTotalPrice());
+            addUnitsSold(order, -1);
+        }
+    }
+
+    private void addUnitsSold(Order order, int sign) {
+        for (OrderItem item : order.getItems()) {
+            unitsSoldByProduct.computeIfAbsent(item.getProductId(), id -> new LongAdder())
+                    .add(sign * (long) item.getQuantity());
+        }
+    }
+
+    public void recordPaymentCreated(Payment payment) {
+        totalPayments.increment();
+        enterPaymentStatus(payment, payment.getStatus());
+    }
+
+    public void recordPaymentStatusChange(Payment payment, PaymentStatus previousStatus) {
+        if (previousStatus == payment.getStatus()) {
+            return;
+        }
+        leavePaymentStatus(payment, previousStatus);
+        enterPaymentStatus(payment, payment.getStatus());
+    }
+
+    private void enterPaymentStatus(Payment payment, PaymentStatus status) {
+        paymentsByStatus.get(status).increment();
+        if (status == PaymentStatus.SUCCESS) {
+            successfulPaymentAmount.add(payment.getAmount());
+            successfulPaymentsByMethod.get(payment.getMethod()).increment();
+            successfulAmountByMethod.get(payment.getMethod()).add(payment.getAmount());
+        }
+    }
+
+    private void leavePaymentStatus(Payment payment, PaymentStatus status) {
+        paymentsByStatus.get(status).decrement();
+        if (status == PaymentStatus.SUCCESS) {
+            successfulPaymentAmount.add(-payment.getAmount());
+            successfulPaymentsByMethod.get(payment.getMethod()).decrement();
+            successfulAmountByMethod.get(payment.getMethod()).add(-payment.getAmount());
+        }
+    }
+
+    public long getTotalOrders() {
+        return totalOrders.sum();
+    }
+
+    public long getOrderCount(OrderStatus status) {
+        return ordersByStatus.get(status).sum();
+    }
+
+    public double getDeliveredRevenue() {
+        return deliveredRevenue.sum();
+    }
+
+    public long getUnitsSold(String productId) {
+        LongAdder units = unitsSoldByProduct.get(productId);
+        return units != null ? units.sum() : 0;
+    }
+
+    public SalesSummary getSalesSummary() {
+        SalesSummary summary = new SalesSummary();
+        for (OrderStatus status : OrderStatus.values()) {
+            summary.addOrders(status, getOrderCount(status));
+        }
+        summary.addRevenue(getDeliveredRevenue());
+        for (Map.Entry<String, LongAdder> entry : unitsSoldByProduct.entrySet()) {
+            summary.addUnitsSold(entry.getKey(), entry.getValue().sum());
+        }
+        return summary;
+    }
+
+    public long getTotalPayments() {
+        return totalPayments.sum();
+    }
+
+    public long getPaymentCount(PaymentStatus status) {
+        return paymentsByStatus.get(status).sum();
+    }
+
+    public double getSuccessfulPaymentAmount() {
+        return successfulPaymentAmount.sum();
+    }
+
+    public long getSuccessfulPaymentCount(PaymentMethod method) {
+        return successfulPaymentsByMethod.get(method).sum();
+    }
+
+    public double getSuccessfulPaymentAmount(PaymentMethod method) {
+        return successfulAmountByMethod.get(method).sum();
+    }
+
+    public PaymentSummary getPaymentSummary() {
+        PaymentSummary summary = new PaymentSummary();
+        for (PaymentStatus status : PaymentStatus.values()) {
+            summary.addPayments(status, getPaymentCount(status));
+        }
+        for (PaymentMethod method : PaymentMethod.values()) {
+            summary.addSuccessful(method, getSuccessfulPaymentCount(method), getSuccessfulPaymentAmount(method));
+        }
+        return summary;
+    }
+}
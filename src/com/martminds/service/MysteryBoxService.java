@@ -1,7 +1,13 @@
 package com.martminds.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import com.martminds.exception.InvalidOrderException;
 import com.martminds.exception.OutOfStockException;
@@ -10,20 +16,29 @@ import com.martminds.model.order.MysteryBoxOrder;
 import com.martminds.model.product.MysteryBox;
 import com.martminds.model.product.Product;
 import com.martminds.util.RandomGenerator;
+import com.martminds.util.CSVReader;
 import com.martminds.util.FileHandler;
 import com.martminds.util.Logger;
+import com.martminds.util.PersistenceScheduler;
 
 public class MysteryBoxService {
-    private static MysteryBoxService instance;
-    private List<MysteryBox> mysteryBoxes;
-    private List<MysteryBoxOrder> mysteryBoxOrders;
+    private final Map<String, MysteryBox> mysteryBoxes;
+    private final Map<String, MysteryBoxOrder> mysteryBoxOrders;
     private static final String MYSTERYBOX_FILE = "mystery_boxes.csv";
     private static final String MYSTERYBOX_ORDER_FILE = "mystery_box_orders.csv";
+    private static final Comparator<MysteryBoxOrder> BY_CREATED_AT = Comparator
+            .comparing(MysteryBoxOrder::getCreatedAt)
+            .thenComparing(MysteryBoxOrder::getBoxOrderId);
+
+    private static class Holder {
+        private static final MysteryBoxService INSTANCE = new MysteryBoxService();
+    }
 
     private MysteryBoxService() {
-        this.mysteryBoxes = new ArrayList<>();
-        this.mysteryBoxOrders = new ArrayList<>();
+        this.mysteryBoxes = new ConcurrentSkipListMap<>();
+        this.mysteryBoxOrders = new ConcurrentHashMap<>();
         loadFromFile();
+        PersistenceScheduler.getInstance().register(MYSTERYBOX_FILE, this::saveToFile);
         if (mysteryBoxes.isEmpty()) {
             createSampleMysteryBoxes();
             saveToFile();
@@ -31,106 +46,98 @@ public class MysteryBoxService {
     }
 
     public static MysteryBoxService getInstance() {
-        if (instance == null) {
-            instance = new MysteryBoxService();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     private void loadFromFile() {
+        FileHandler.forEachRecord(MYSTERYBOX_FILE, this::loadMysteryBoxRecord);
+        FileHandler.forEachRecord(MYSTERYBOX_ORDER_FILE, this::loadMysteryBoxOrderRecord);
+
+        Logger.info("Loaded " + mysteryBoxes.size() + " mystery boxes and " +
+                mysteryBoxOrders.size() + " orders from file");
+    }
 
-        List<String> boxLines = FileHandler.readFile(MYSTERYBOX_FILE);
+    private void loadMysteryBoxRecord(CSVReader record) {
         ProductService productService = ProductService.getInstance();
 
-        for (String line : boxLines) {
-            if (line.trim().isEmpty())
-                continue;
-
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 7)
-                    continue;
-
-                String boxId = fields[0];
-                String name = fields[1];
-                double price = Double.parseDouble(fields[2]);
-                String category = fields[3];
-                String description = fields[4];
-                int stock = Integer.parseInt(fields[5]);
-                String storeId = fields[6];
-
-                MysteryBox box = new MysteryBox(boxId, name, price, category, description, stock, storeId);
-
-                for (int i = 7; i < fields.length; i++) {
-                    String productId = fields[i];
-                    if (!productId.isEmpty()) {
-                        Product product = productService.getProductById(productId);
-                        if (product != null) {
-                            box.addPossibleProduct(product);
-                        }
+        try {
+            if (record.getFieldCount() < 7)
+                return;
+
+            String boxId = record.getString(0);
+            String name = record.getString(1);
+            double price = record.getDouble(2);
+            String category = record.getString(3);
+            String description = record.getString(4);
+            int stock = record.getInt(5);
+            String storeId = record.getString(6);
+
+            MysteryBox box = new MysteryBox(boxId, name, price, category, description, stock, storeId);
+
+            for (int i = 7; i < record.getFieldCount(); i++) {
+                if (!record.isEmpty(i)) {
+                    Product product = productService.getProductById(record.getString(i));
+                    if (product != null) {
+                        box.addPossibleProduct(product);
                     }
                 }
-
-                mysteryBoxes.add(box);
-            } catch (Exception e) {
-                Logger.error("Error parsing mystery box line: " + line + " - " + e.getMessage());
             }
+
+            mysteryBoxes.putIfAbsent(boxId, box);
+        } catch (Exception e) {
+            Logger.error("Error parsing mystery box line: " + record.getRecord() + " - " + e.getMessage());
         }
+    }
+
+    private void loadMysteryBoxOrderRecord(CSVReader record) {
+        ProductService productService = ProductService.getInstance();
 
-        List<String> orderLines = FileHandler.readFile(MYSTERYBOX_ORDER_FILE);
-
-        for (String line : orderLines) {
-            if (line.trim().isEmpty())
-                continue;
-
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 11)
-                    continue;
-
-                String orderId = fields[0];
-                String customerId = fields[1];
-                String boxId = fields[2];
-                String boxName = fields[3];
-                double price = Double.parseDouble(fields[4]);
-
-                String street = fields[5];
-                String city = fields[6];
-                String postalCode = fields[7];
-                String district = fields[8];
-                String province = fields[9];
-                Address address = new Address(street, city, postalCode, district, province);
-
-                MysteryBoxOrder order = new MysteryBoxOrder(orderId, customerId, boxId, boxName, price, address);
-
-                String contentsStr = fields[10];
-                if (!contentsStr.isEmpty()) {
-                    String[] productIds = contentsStr.split(";");
-                    List<Product> actualContents = new ArrayList<>();
-                    for (String pid : productIds) {
-                        Product product = productService.getProductById(pid.trim());
-                        if (product != null) {
-                            actualContents.add(product);
-                        }
+        try {
+            if (record.getFieldCount() < 11)
+                return;
+
+            String orderId = record.getString(0);
+            String customerId = record.getString(1);
+            String boxId = record.getString(2);
+            String boxName = record.getString(3);
+            double price = record.getDouble(4);
+
+            String street = record.getString(5);
+            String city = record.getString(6);
+            String postalCode = record.getString(7);
+            String district = record.getString(8);
+            String province = record.getString(9);
+            Address address = new Address(street, city, postalCode, district, province);
+
+            MysteryBoxOrder order = new MysteryBoxOrder(orderId, customerId, boxId, boxName, price, address);
+
+            if (!record.isEmpty(10)) {
+                String[] productIds = record.getString(10).split(";");
+                List<Product> actualContents = new ArrayList<>();
+                for (String pid : productIds) {
+                    Product product = productService.getProductById(pid.trim());
+                    if (product != null) {
+                        actualContents.add(product);
                     }
-                    order.setActualContents(actualContents);
                 }
-
-                mysteryBoxOrders.add(order);
-            } catch (Exception e) {
-                Logger.error("Error parsing mystery box order line: " + line + " - " + e.getMessage());
+                order.setActualContents(actualContents);
             }
+
+            mysteryBoxOrders.putIfAbsent(orderId, order);
+        } catch (Exception e) {
+            Logger.error("Error parsing mystery box order line: " + record.getRecord() + " - " + e.getMessage());
         }
+    }
 
-        Logger.info("Loaded " + mysteryBoxes.size() + " mystery boxes and " +
-                mysteryBoxOrders.size() + " orders from file");
+    private void scheduleSave() {
+        PersistenceScheduler.getInstance().markDirty(MYSTERYBOX_FILE);
     }
 
-    private void saveToFile() {
+    private synchronized boolean saveToFile() {
 
         List<String> boxLines = new ArrayList<>();
 
-        for (MysteryBox box : mysteryBoxes) {
+        for (MysteryBox box : mysteryBoxes.values()) {
             List<String> fields = new ArrayList<>();
             fields.add(box.getBoxId());
             fields.add(box.getName());
@@ -148,11 +155,10 @@ public class MysteryBoxService {
             boxLines.add(line);
         }
 
-        FileHandler.writeFile(MYSTERYBOX_FILE, boxLines);
 
         List<String> orderLines = new ArrayList<>();
 
-        for (MysteryBoxOrder order : mysteryBoxOrders) {
+        for (MysteryBoxOrder order : getAllMysteryBoxOrders()) {
             Address addr = order.getDeliveryAddress();
 
             StringBuilder contentsStr = new StringBuilder();
@@ -178,26 +184,28 @@ public class MysteryBoxService {
             orderLines.add(line);
         }
 
-        FileHandler.writeFile(MYSTERYBOX_ORDER_FILE, orderLines);
+        Map<String, List<String>> files = new LinkedHashMap<>();
+        files.put(MYSTERYBOX_FILE, boxLines);
+        files.put(MYSTERYBOX_ORDER_FILE, orderLines);
+        return FileHandler.writeFiles(files);
     }
 
     public List<MysteryBox> getAllMysteryBoxes() {
-        return new ArrayList<>(mysteryBoxes);
+        return new ArrayList<>(mysteryBoxes.values());
     }
 
     public MysteryBox getMysteryBoxById(String boxId) {
-        return mysteryBoxes.stream()
-                .filter(box -> box.getBoxId().equals(boxId))
-                .findFirst()
-                .orElse(null);
+        if (boxId == null) {
+            return null;
+        }
+        return mysteryBoxes.get(boxId);
     }
 
     public boolean addMysteryBox(MysteryBox box) {
-        if (box == null || getMysteryBoxById(box.getBoxId()) != null) {
+        if (box == null || mysteryBoxes.putIfAbsent(box.getBoxId(), box) != null) {
             return false;
         }
-        mysteryBoxes.add(box);
-        saveToFile();
+        scheduleSave();
         return true;
     }
 
@@ -209,42 +217,51 @@ public class MysteryBoxService {
             throw new IllegalArgumentException("Mystery box not found: " + boxId);
         }
 
-        if (!box.isAvailable()) {
-            throw new OutOfStockException("Mystery box is out of stock: " + box.getName());
-        }
+        MysteryBoxOrder order;
+        synchronized (box) {
+            if (!box.isAvailable()) {
+                throw new OutOfStockException("Mystery box is out of stock: " + box.getName());
+            }
 
-        List<Product> selectedProducts = RandomGenerator.selectRandomItems(
-                box.getPossibleProducts(),
-                RandomGenerator.randomInt(3, 5));
+            List<Product> selectedProducts = RandomGenerator.selectRandomItems(
+                    box.getPossibleProducts(),
+                    RandomGenerator.randomInt(3, 5));
 
-        String orderId = "MBO-" + RandomGenerator.generateCode(8);
-        MysteryBoxOrder order = new MysteryBoxOrder(
-                orderId, customerId, boxId, box.getName(), box.getPrice(), deliveryAddress);
+            String orderId = "MBO-" + RandomGenerator.generateCode(8);
+            order = new MysteryBoxOrder(
+                    orderId, customerId, boxId, box.getName(), box.getPrice(), deliveryAddress);
 
-        order.setActualContents(selectedProducts);
+            order.setActualContents(selectedProducts);
 
-        box.updateStock(-1);
+            box.updateStock(-1);
+        }
 
-        mysteryBoxOrders.add(order);
-        saveToFile();
+        mysteryBoxOrders.put(order.getBoxOrderId(), order);
+        scheduleSave();
         return order;
     }
 
     public MysteryBoxOrder findMysteryBoxOrderById(String orderId) {
-        return mysteryBoxOrders.stream()
-                .filter(order -> order.getBoxOrderId().equals(orderId))
-                .findFirst()
-                .orElse(null);
+        if (orderId == null) {
+            return null;
+        }
+        return mysteryBoxOrders.get(orderId);
     }
 
     public List<MysteryBoxOrder> getMysteryBoxOrdersByCustomer(String customerId) {
-        return mysteryBoxOrders.stream()
+        return sortedList(mysteryBoxOrders.values().stream()
                 .filter(order -> order.getCustomerId().equals(customerId))
-                .collect(java.util.stream.Collectors.toList());
+                .collect(java.util.stream.Collectors.toList()));
     }
 
     public List<MysteryBoxOrder> getAllMysteryBoxOrders() {
-        return new ArrayList<>(mysteryBoxOrders);
+        return sortedList(mysteryBoxOrders.values());
+    }
+
+    private List<MysteryBoxOrder> sortedList(Collection<MysteryBoxOrder> values) {
+        List<MysteryBoxOrder> list = new ArrayList<>(values);
+        list.sort(BY_CREATED_AT);
+        return list;
     }
 
     private void createSampleMysteryBoxes() {
@@ -256,7 +273,7 @@ public class MysteryBoxService {
         snackBox.addPossibleProduct(productService.getProductById("P003"));
         snackBox.addPossibleProduct(productService.getProductById("P005"));
         snackBox.addPossibleProduct(productService.getProductById("P009"));
-        mysteryBoxes.add(snackBox);
+        mysteryBoxes.put(snackBox.getBoxId(), snackBox);
 
         MysteryBox beverageBox = new MysteryBox(
                 "MB002", "Beverage Bundle Box", 40000, "Beverage",
@@ -265,6 +282,6 @@ public class MysteryBoxService {
         beverageBox.addPossibleProduct(productService.getProductById("P004"));
         beverageBox.addPossibleProduct(productService.getProductById("P006"));
         beverageBox.addPossibleProduct(productService.getProductById("P010"));
-        mysteryBoxes.add(beverageBox);
+        mysteryBoxes.put(beverageBox.getBoxId(), beverageBox);
     }
 }
@@ -1,181 +1,466 @@
 package com.martminds.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import com.martminds.model.order.Order;
 import com.martminds.model.order.OrderItem;
 import com.martminds.model.common.Address;
 import com.martminds.enums.OrderStatus;
-import com.martminds.model.product.Product;
 import com.martminds.exception.InvalidOrderException;
 import com.martminds.exception.OutOfStockException;
+import com.martminds.util.BinarySnapshotWriter;
+import com.martminds.util.CSVWriter;
+import com.martminds.util.DataRecord;
 import com.martminds.util.FileHandler;
+import com.martminds.util.InvertedIndex;
 import com.martminds.util.Logger;
+import com.martminds.util.PersistenceScheduler;
+import com.martminds.util.PriceCalculator;
+import com.martminds.util.RecordWriter;
 
 public class OrderService {
-    private static OrderService instance;
     private final ProductService productService = ProductService.getInstance();
-    private List<Order> orders;
+    private final MetricsService metrics = MetricsService.getInstance();
+    private final BestSellerService bestSellers = BestSellerService.getInstance();
+    private final Map<String, Order> orders;
+    private final Map<String, Map<String, Order>> ordersByCustomer;
+    private final Map<String, Map<String, Order>> ordersByDriver;
+    private final Map<String, Map<String, Order>> ordersByStore;
+    private final Map<OrderStatus, Map<String, Order>> ordersByStatus;
+    private final ConcurrentNavigableMap<LocalDateTime, Map<String, Order>> ordersByCreatedAt;
+    private final Map<String, AtomicIntegerArray> driverStatusCounts;
+    private final InvertedIndex<String> searchIndex;
     private static final String ORDER_FILE = "orders.csv";
     private static final String ORDER_ITEMS_FILE = "order_items.csv";
+    private static final String ORDER_SNAPSHOT_FILE = "orders.bin";
+    private static final String ORDER_ITEMS_SNAPSHOT_FILE = "order_items.bin";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final Comparator<Order> BY_CREATED_AT = Comparator.comparing(Order::getCreatedAt)
+            .thenComparing(Order::getOrderId);
+
+    private static class Holder {
+        private static final OrderService INSTANCE = new OrderService();
+    }
 
     private OrderService() {
-        this.orders = new ArrayList<>();
+        this.orders = new ConcurrentHashMap<>();
+        this.ordersByCustomer = new ConcurrentHashMap<>();
+        this.ordersByDriver = new ConcurrentHashMap<>();
+        this.ordersByStore = new ConcurrentHashMap<>();
+        this.ordersByStatus = new EnumMap<>(OrderStatus.class);
+        this.ordersByCreatedAt = new ConcurrentSkipListMap<>();
+        this.driverStatusCounts = new ConcurrentHashMap<>();
+        this.searchIndex = new InvertedIndex<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, new ConcurrentHashMap<>());
+        }
         loadFromFile();
+        PersistenceScheduler.getInstance().register(ORDER_FILE, this::saveToFile);
     }
 
     public static OrderService getInstance() {
-        if (instance == null) {
-            instance = new OrderService();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     private void loadFromFile() {
-        List<String> orderLines = FileHandler.readFile(ORDER_FILE);
-        List<String> itemLines = FileHandler.readFile(ORDER_ITEMS_FILE);
-
-        for (String line : orderLines) {
-            if (line.trim().isEmpty())
-                continue;
-
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 10)
-                    continue;
-
-                String orderId = fields[0];
-                String customerId = fields[1];
-                String storeId = fields[2];
-                OrderStatus status = OrderStatus.valueOf(fields[3]);
-
-                String street = fields[5];
-                String city = fields[6];
-                String postalCode = fields[7];
-                String district = fields[8];
-                String province = fields[9];
-                Address address = new Address(street, city, postalCode, district, province);
-
-                Order order = new Order(orderId, customerId, storeId, address);
-                order.updateStatus(status);
-
-                orders.add(order);
-            } catch (Exception e) {
-                Logger.error("Error parsing order line: " + line + " - " + e.getMessage());
-            }
+        if (!FileHandler.forEachSnapshotRecord(ORDER_SNAPSHOT_FILE, SNAPSHOT_VERSION, ORDER_FILE,
+                this::loadOrderRecord)) {
+            FileHandler.forEachRecord(ORDER_FILE, this::loadOrderRecord);
+        }
+        if (!FileHandler.forEachSnapshotRecord(ORDER_ITEMS_SNAPSHOT_FILE, SNAPSHOT_VERSION, ORDER_ITEMS_FILE,
+                this::loadOrderItemRecord)) {
+            FileHandler.forEachRecord(ORDER_ITEMS_FILE, this::loadOrderItemRecord);
+        }
+        for (Order order : orders.values()) {
+            indexForSearch(order);
+            metrics.recordOrderCreated(order);
+            bestSellers.recordOrder(order);
+        }
+
+        Logger.info("Loaded " + orders.size() + " orders from file");
+    }
+
+    private void loadOrderRecord(DataRecord record) {
+        try {
+            if (record.getFieldCount() < 10)
+                return;
+
+            String orderId = record.getString(0);
+            String customerId = record.getString(1);
+            String storeId = record.getString(2);
+            OrderStatus status = record.getEnum(3, OrderStatus.class);
+            LocalDateTime createdAt = record.isEmpty(4) ? null : LocalDateTime.parse(record.getString(4));
+
+            String street = record.getString(5);
+            String city = record.getString(6);
+            String postalCode = record.getString(7);
+            String district = record.getString(8);
+            String province = record.getString(9);
+            Address address = new Address(street, city, postalCode, district, province);
+
+            String driverId = record.isEmpty(10) ? null : record.getString(10);
+
+            Order order = new Order(orderId, customerId, storeId, address);
+            order.restoreState(status, driverId, createdAt);
+
+            indexOrder(order);
+        } catch (Exception e) {
+            Logger.error("Error parsing order line: " + record.getRecord() + " - " + e.getMessage());
+        }
+    }
+
+    private void loadOrderItemRecord(DataRecord record) {
+        try {
+            if (record.getFieldCount() < 6)
+                return;
+
+            Order order = orders.get(record.getString(0));
+            if (order == null)
+                return;
+
+            String itemId = record.getString(1);
+            String productId = record.getString(2);
+            String productName = record.getString(3);
+            int quantity = record.getInt(4);
+            double price = record.getDouble(5);
+
+            order.restoreItem(new OrderItem(itemId, productId, productName, quantity, price));
+        } catch (Exception e) {
+            Logger.error("Error parsing order item line: " + record.getRecord() + " - " + e.getMessage());
+        }
+    }
+
+    private void indexOrder(Order order) {
+        orders.put(order.getOrderId(), order);
+        addToBucket(ordersByCustomer, order.getCustomerId(), order);
+        addToBucket(ordersByStore, order.getStoreId(), order);
+        if (order.getDriverId() != null) {
+            addToBucket(ordersByDriver, order.getDriverId(), order);
+            adjustDriverCount(order.getDriverId(), order.getStatus(), 1);
+        }
+        ordersByStatus.get(order.getStatus()).put(order.getOrderId(), order);
+        ordersByCreatedAt.computeIfAbsent(order.getCreatedAt(), k -> new ConcurrentHashMap<>())
+                .put(order.getOrderId(), order);
+    }
+
+    private void indexForSearch(Order order) {
+        List<Object> values = new ArrayList<>();
+        values.add(order.getOrderId());
+        values.add(order.getCustomerId());
+        values.add(order.getStoreId());
+        values.add(order.getDriverId());
+        values.add(order.getStatus());
+        Address addr = order.getDeliveryAddress();
+        if (addr != null) {
+            values.add(addr.getStreet());
+            values.add(addr.getCity());
+            values.add(addr.getPostalCode());
+            values.add(addr.getDistrict());
+            values.add(addr.getProvince());
+        }
+        for (OrderItem item : order.getItems()) {
+            values.add(item.getProductId());
+            values.add(item.getProductName());
         }
+        searchIndex.put(order.getOrderId(), values.toArray());
+    }
 
-        for (String line : itemLines) {
-            if (line.trim().isEmpty())
-                continue;
-
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 6)
-                    continue;
-
-                String orderId = fields[0];
-                String itemId = fields[1];
-                String productId = fields[2];
-                String productName = fields[3];
-                int quantity = Integer.parseInt(fields[4]);
-                double price = Double.parseDouble(fields[5]);
-
-                Order order = findOrderById(orderId);
-                if (order != null) {
-                    OrderItem item = new OrderItem(itemId, productId, productName, quantity, price);
-                    order.addItem(item);
-                }
-            } catch (Exception e) {
-                Logger.error("Error parsing order item line: " + line + " - " + e.getMessage());
+    private void reindexOrder(Order order, OrderStatus previousStatus, String previousDriverId) {
+        if (previousStatus != order.getStatus()) {
+            ordersByStatus.get(previousStatus).remove(order.getOrderId());
+            ordersByStatus.get(order.getStatus()).put(order.getOrderId(), order);
+            metrics.recordOrderStatusChange(order, previousStatus);
+        }
+        String driverId = order.getDriverId();
+        boolean driverChanged = !Objects.equals(driverId, previousDriverId);
+        if (driverChanged && previousDriverId != null) {
+            removeFromBucket(ordersByDriver, previousDriverId, order);
+        }
+        if (driverChanged && driverId != null) {
+            addToBucket(ordersByDriver, driverId, order);
+        }
+        if (driverChanged || previousStatus != order.getStatus()) {
+            if (previousDriverId != null) {
+                adjustDriverCount(previousDriverId, previousStatus, -1);
+            }
+            if (driverId != null) {
+                adjustDriverCount(driverId, order.getStatus(), 1);
             }
         }
+        indexForSearch(order);
+    }
 
-        Logger.info("Loaded " + orders.size() + " orders from file");
+    private void adjustDriverCount(String driverId, OrderStatus status, int delta) {
+        driverStatusCounts.computeIfAbsent(driverId, id -> new AtomicIntegerArray(OrderStatus.values().length))
+                .addAndGet(status.ordinal(), delta);
     }
 
-    private void saveToFile() {
-        List<String> orderLines = new ArrayList<>();
-        List<String> itemLines = new ArrayList<>();
-
-        for (Order order : orders) {
-            Address addr = order.getDeliveryAddress();
-            String orderLine = FileHandler.formatCSVLine(
-                    order.getOrderId(),
-                    order.getCustomerId(),
-                    order.getStoreId(),
-                    order.getStatus().toString(),
-                    order.getCreatedAt().toString(),
-                    addr.getStreet(),
-                    addr.getCity(),
-                    addr.getPostalCode(),
-                    addr.getDistrict(),
-                    addr.getProvince());
-            orderLines.add(orderLine);
-
-            for (OrderItem item : order.getItems()) {
-                String itemLine = FileHandler.formatCSVLine(
-                        order.getOrderId(),
-                        item.getOrderItemId(),
-                        item.getProductId(),
-                        item.getProductName(),
-                        String.valueOf(item.getQuantity()),
-                        String.valueOf(item.getPriceAtPurchase()));
-                itemLines.add(itemLine);
+    private void removeFromBucket(Map<String, Map<String, Order>> index, String key, Order order) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(order.getOrderId());
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private void addToBucket(Map<String, Map<String, Order>> index, String key, Order order) {
+        index.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                bucket = new ConcurrentHashMap<>();
             }
+            bucket.put(order.getOrderId(), order);
+            return bucket;
+        });
+    }
+
+    private List<Order> bucketToList(Map<String, Map<String, Order>> index, String key) {
+        Map<String, Order> bucket = index.get(key);
+        return bucket == null ? new ArrayList<>() : sortedList(bucket.values());
+    }
+
+    private List<Order> sortedList(Collection<Order> values) {
+        List<Order> list = new ArrayList<>(values);
+        list.sort(BY_CREATED_AT);
+        return list;
+    }
+
+    private void scheduleSave() {
+        PersistenceScheduler.getInstance().markDirty(ORDER_FILE);
+    }
+
+    private synchronized boolean saveToFile() {
+        CSVWriter orderCsv = new CSVWriter();
+        CSVWriter itemCsv = new CSVWriter();
+        writeOrders(orderCsv, itemCsv);
+
+        Map<String, List<String>> files = new LinkedHashMap<>();
+        files.put(ORDER_FILE, orderCsv.getLines());
+        files.put(ORDER_ITEMS_FILE, itemCsv.getLines());
+
+        Map<String, byte[]> snapshots = new LinkedHashMap<>();
+        if (FileHandler.isBinarySnapshotsEnabled()) {
+            BinarySnapshotWriter orderSnapshot = new BinarySnapshotWriter(SNAPSHOT_VERSION);
+            BinarySnapshotWriter itemSnapshot = new BinarySnapshotWriter(SNAPSHOT_VERSION);
+            writeOrders(orderSnapshot, itemSnapshot);
+            snapshots.put(ORDER_SNAPSHOT_FILE, orderSnapshot.toByteArray());
+            snapshots.put(ORDER_ITEMS_SNAPSHOT_FILE, itemSnapshot.toByteArray());
         }
 
-        FileHandler.writeFile(ORDER_FILE, orderLines);
-        FileHandler.writeFile(ORDER_ITEMS_FILE, itemLines);
+        return FileHandler.writeFiles(files, snapshots);
     }
 
-    public Order createOrder(Order order) throws OutOfStockException {
-        for (OrderItem item : order.getItems()) {
-            Product product = productService.getProductById(item.getProductId());
-            if (product == null || product.getStock() < item.getQuantity()) {
-                throw new OutOfStockException(
-                        "Product " + (product != null ? product.getName() : item.getProductId()) + " is out of stock!");
+    private void writeOrders(RecordWriter orderWriter, RecordWriter itemWriter) {
+        for (Order order : getAllOrders()) {
+            synchronized (order) {
+                writeOrder(order, orderWriter, itemWriter);
             }
         }
+    }
+
+    private void writeOrder(Order order, RecordWriter orderWriter, RecordWriter itemWriter) {
+        Address addr = order.getDeliveryAddress();
+        orderWriter.addString(order.getOrderId())
+                .addString(order.getCustomerId())
+                .addString(order.getStoreId())
+                .addEnum(order.getStatus())
+                .addString(order.getCreatedAt().toString())
+                .addString(addr.getStreet())
+                .addString(addr.getCity())
+                .addString(addr.getPostalCode())
+                .addString(addr.getDistrict())
+                .addString(addr.getProvince())
+                .addString(order.getDriverId())
+                .endRecord();
 
         for (OrderItem item : order.getItems()) {
-            Product product = productService.getProductById(item.getProductId());
-            product.updateStock(-item.getQuantity());
+            itemWriter.addString(order.getOrderId())
+                    .addString(item.getOrderItemId())
+                    .addString(item.getProductId())
+                    .addString(item.getProductName())
+                    .addInt(item.getQuantity())
+                    .addDouble(item.getPriceAtPurchase())
+                    .endRecord();
         }
+    }
 
-        orders.add(order);
-        saveToFile();
+    private Map<String, Integer> itemQuantities(Order order) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    public Order createOrder(Order order) throws OutOfStockException {
+        productService.reserveStock(itemQuantities(order));
+
+        indexOrder(order);
+        indexForSearch(order);
+        metrics.recordOrderCreated(order);
+        bestSellers.recordOrder(order);
+        scheduleSave();
         return order;
     }
 
+    public double calculateDeliveryFee(Order order) {
+        return PriceCalculator.calculateDeliveryFee(getDeliveryDistanceKm(order));
+    }
+
+    public double calculateCheckoutTotal(Order order) {
+        return PriceCalculator.calculateTotal(order.getTotalPrice(), getDeliveryDistanceKm(order));
+    }
+
+    private double getDeliveryDistanceKm(Order order) {
+        double distanceKm = DistanceService.getInstance().getDeliveryDistanceKm(order.getStoreId(),
+                order.getDeliveryAddress());
+        if (distanceKm == DistanceService.UNKNOWN_DISTANCE) {
+            Logger.warning("Delivery distance unknown for order " + order.getOrderId() + ", charging base fee");
+            return 0;
+        }
+        return distanceKm;
+    }
+
     public Order findOrderById(String id) {
-        for (Order o : orders) {
-            if (o.getOrderId().equals(id)) {
-                return o;
-            }
+        if (id == null) {
+            return null;
         }
-        return null;
+        return orders.get(id);
     }
 
     public List<Order> getOrdersByCustomer(String customerId) {
-        List<Order> customerOrders = new ArrayList<>();
-        for (Order o : orders) {
-            if (o.getCustomerId().equals(customerId)) {
-                customerOrders.add(o);
-            }
-        }
-        return customerOrders;
+        return bucketToList(ordersByCustomer, customerId);
+    }
+
+    public List<Order> getOrdersByDriver(String driverId) {
+        return bucketToList(ordersByDriver, driverId);
+    }
+
+    public List<Order> getOrdersByStore(String storeId) {
+        return bucketToList(ordersByStore, storeId);
+    }
+
+    public List<Order> getOrdersByStatus(OrderStatus status) {
+        return sortedList(ordersByStatus.get(status).values());
+    }
+
+    public int getOrderCount() {
+        return orders.size();
+    }
+
+    public int countOrdersByDriver(String driverId) {
+        Map<String, Order> bucket = driverId == null ? null : ordersByDriver.get(driverId);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    public int countOrdersByDriver(String driverId, OrderStatus status) {
+        AtomicIntegerArray counts = driverId == null ? null : driverStatusCounts.get(driverId);
+        return counts == null ? 0 : counts.get(status.ordinal());
+    }
+
+    public int countOrdersByStatus(OrderStatus status) {
+        return ordersByStatus.get(status).size();
     }
 
     public void updateOrderStatus(String orderId, OrderStatus newStatus) throws InvalidOrderException {
         Order order = findOrderById(orderId);
         if (order != null) {
-            order.updateStatus(newStatus);
-            saveToFile();
+            synchronized (order) {
+                OrderStatus previousStatus = order.getStatus();
+                order.updateStatus(newStatus);
+                reindexOrder(order, previousStatus, order.getDriverId());
+            }
+            if (newStatus == OrderStatus.CANCELLED) {
+                productService.releaseStock(itemQuantities(order));
+            }
+            scheduleSave();
+        }
+    }
+
+    public void cancelOrder(String orderId) throws InvalidOrderException {
+        Order order = findOrderById(orderId);
+        if (order == null) {
+            throw new InvalidOrderException("Order not found", orderId);
+        }
+        synchronized (order) {
+            OrderStatus previousStatus = order.getStatus();
+            order.cancel();
+            reindexOrder(order, previousStatus, order.getDriverId());
+        }
+        productService.releaseStock(itemQuantities(order));
+        scheduleSave();
+    }
+
+    public void assignDriver(String orderId, String driverId) throws InvalidOrderException {
+        Order order = findOrderById(orderId);
+        if (order == null) {
+            throw new InvalidOrderException("Order not found", orderId);
+        }
+        synchronized (order) {
+            OrderStatus previousStatus = order.getStatus();
+            String previousDriverId = order.getDriverId();
+            order.assignDriver(driverId);
+            reindexOrder(order, previousStatus, previousDriverId);
+        }
+        scheduleSave();
+    }
+
+    public void markAsDelivered(String orderId) throws InvalidOrderException {
+        Order order = findOrderById(orderId);
+        if (order == null) {
+            throw new InvalidOrderException("Order not found", orderId);
+        }
+        synchronized (order) {
+            OrderStatus previousStatus = order.getStatus();
+            order.markAsDelivered();
+            reindexOrder(order, previousStatus, order.getDriverId());
+        }
+        scheduleSave();
+    }
+
+    public List<Order> searchOrders(String query) {
+        List<Order> results = new ArrayList<>();
+        for (String orderId : searchIndex.search(query)) {
+            Order order = orders.get(orderId);
+            if (order != null) {
+                results.add(order);
+            }
+        }
+        results.sort(BY_CREATED_AT);
+        return results;
+    }
+
+    public List<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        Collection<Map<String, Order>> buckets;
+        if (from == null && to == null) {
+            buckets = ordersByCreatedAt.values();
+        } else if (from == null) {
+            buckets = ordersByCreatedAt.headMap(to, false).values();
+        } else if (to == null) {
+            buckets = ordersByCreatedAt.tailMap(from, true).values();
+        } else if (from.isBefore(to)) {
+            buckets = ordersByCreatedAt.subMap(from, true, to, false).values();
+        } else {
+            return new ArrayList<>();
+        }
+
+        List<Order> results = new ArrayList<>();
+        for (Map<String, Order> bucket : buckets) {
+            results.addAll(sortedList(bucket.values()));
         }
+        return results;
     }
 
     public List<Order> getAllOrders() {
-        return new ArrayList<>(orders);
+        return sortedList(orders.values());
     }
 }
@@ -1,5 +1,6 @@
 package com.martminds.service;
 
+import com.martminds.model.order.Order;
 import com.martminds.model.payment.Payment;
 import com.martminds.model.payment.CashPayment;
 import com.martminds.model.payment.EWalletPayment;
@@ -8,131 +9,168 @@ import com.martminds.enums.PaymentMethod;
 import com.martminds.enums.PaymentStatus;
 import com.martminds.exception.PaymentFailedException;
 import com.martminds.exception.InsufficientBalanceException;
+import com.martminds.util.BinarySnapshotWriter;
+import com.martminds.util.CSVWriter;
+import com.martminds.util.DataRecord;
 import com.martminds.util.FileHandler;
+import com.martminds.util.InvertedIndex;
 import com.martminds.util.Logger;
+import com.martminds.util.PersistenceScheduler;
+import com.martminds.util.RecordWriter;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PaymentService {
-    private static PaymentService instance;
-    private List<Payment> payments;
+    private final Map<String, Payment> payments;
+    private final InvertedIndex<String> searchIndex;
+    private final MetricsService metrics = MetricsService.getInstance();
     private static final String PAYMENT_FILE = "payments.csv";
+    private static final String PAYMENT_SNAPSHOT_FILE = "payments.bin";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final Comparator<Payment> BY_CREATED_AT = Comparator.comparing(Payment::getCreatedAt)
+            .thenComparing(Payment::getPaymentId);
+
+    private static class Holder {
+        private static final PaymentService INSTANCE = new PaymentService();
+    }
 
     private PaymentService() {
-        this.payments = new ArrayList<>();
+        this.payments = new ConcurrentHashMap<>();
+        this.searchIndex = new InvertedIndex<>();
         loadFromFile();
+        PersistenceScheduler.getInstance().register(PAYMENT_FILE, this::saveToFile);
     }
 
     public static PaymentService getInstance() {
-        if (instance == null) {
-            instance = new PaymentService();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     private void loadFromFile() {
-        List<String> lines = FileHandler.readFile(PAYMENT_FILE);
+        if (!FileHandler.forEachSnapshotRecord(PAYMENT_SNAPSHOT_FILE, SNAPSHOT_VERSION, PAYMENT_FILE,
+                this::loadPaymentRecord)) {
+            FileHandler.forEachRecord(PAYMENT_FILE, this::loadPaymentRecord);
+        }
+        for (Payment payment : payments.values()) {
+            metrics.recordPaymentCreated(payment);
+        }
 
-        for (String line : lines) {
-            if (line.trim().isEmpty())
-                continue;
+        Logger.info("Loaded " + payments.size() + " payments from file");
+    }
 
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 6)
-                    continue;
-
-                String paymentId = fields[0];
-                String userId = fields[1];
-                String orderId = fields[2];
-                double amount = Double.parseDouble(fields[3]);
-                PaymentMethod method = PaymentMethod.valueOf(fields[4]);
-                PaymentStatus status = PaymentStatus.valueOf(fields[5]);
-
-                Payment payment;
-                switch (method) {
-                    case CASH:
-                        String citizenId = fields.length > 6 ? fields[6] : "";
-                        payment = new CashPayment(paymentId, userId, orderId, amount, citizenId);
-                        break;
-                    case EWALLET:
-                        String walletId = fields.length > 6 ? fields[6] : userId;
-                        payment = new EWalletPayment(paymentId, userId, orderId, amount, walletId);
-                        break;
-                    case CREDIT_CARD:
-                        String cardNumber = fields.length > 9 ? fields[6] : "";
-                        String cardHolder = fields.length > 9 ? fields[7] : "";
-                        String expiry = fields.length > 9 ? fields[8] : "";
-                        String cvv = fields.length > 9 ? fields[9] : "";
-                        payment = new CreditCardPayment(paymentId, userId, orderId, amount,
-                                cardNumber, cardHolder, expiry, cvv);
-                        break;
-                    default:
-                        continue;
-                }
+    private void loadPaymentRecord(DataRecord record) {
+        try {
+            int fieldCount = record.getFieldCount();
+            if (fieldCount < 6)
+                return;
+
+            String paymentId = record.getString(0);
+            String userId = record.getString(1);
+            String orderId = record.getString(2);
+            double amount = record.getDouble(3);
+            PaymentMethod method = record.getEnum(4, PaymentMethod.class);
+            PaymentStatus status = record.getEnum(5, PaymentStatus.class);
+
+            Payment payment;
+            int createdAtIndex;
+            switch (method) {
+                case CASH:
+                    String citizenId = fieldCount > 6 ? record.getString(6) : "";
+                    payment = new CashPayment(paymentId, userId, orderId, amount, citizenId);
+                    createdAtIndex = 7;
+                    break;
+                case EWALLET:
+                    String walletId = fieldCount > 6 ? record.getString(6) : userId;
+                    payment = new EWalletPayment(paymentId, userId, orderId, amount, walletId);
+                    createdAtIndex = 7;
+                    break;
+                case CREDIT_CARD:
+                    String cardNumber = fieldCount > 9 ? record.getString(6) : "";
+                    String cardHolder = fieldCount > 9 ? record.getString(7) : "";
+                    String expiry = fieldCount > 9 ? record.getString(8) : "";
+                    String cvv = fieldCount > 9 ? record.getString(9) : "";
+                    payment = new CreditCardPayment(paymentId, userId, orderId, amount,
+                            cardNumber, cardHolder, expiry, cvv);
+                    createdAtIndex = 10;
+                    break;
+                default:
+                    return;
+            }
 
-                payment.setStatus(status);
-                payments.add(payment);
-            } catch (Exception e) {
-                Logger.error("Error parsing payment line: " + line + " - " + e.getMessage());
+            payment.setStatus(status);
+            if (fieldCount > createdAtIndex && !record.isEmpty(createdAtIndex)) {
+                payment.setCreatedAt(LocalDateTime.parse(record.getString(createdAtIndex)));
+            } else {
+                Order order = OrderService.getInstance().findOrderById(orderId);
+                if (order != null) {
+                    payment.setCreatedAt(order.getCreatedAt());
+                }
             }
+            payments.put(payment.getPaymentId(), payment);
+            indexForSearch(payment);
+        } catch (Exception e) {
+            Logger.error("Error parsing payment line: " + record.getRecord() + " - " + e.getMessage());
         }
+    }
 
-        Logger.info("Loaded " + payments.size() + " payments from file");
+    private void indexForSearch(Payment payment) {
+        searchIndex.put(payment.getPaymentId(), payment.getPaymentId(), payment.getUserId(),
+                payment.getOrderId(), payment.getMethod(), payment.getStatus());
     }
 
-    private void saveToFile() {
-        List<String> lines = new ArrayList<>();
+    private void scheduleSave() {
+        PersistenceScheduler.getInstance().markDirty(PAYMENT_FILE);
+    }
+
+    private synchronized boolean saveToFile() {
+        CSVWriter csv = new CSVWriter();
+        writePayments(csv);
+
+        Map<String, List<String>> files = new LinkedHashMap<>();
+        files.put(PAYMENT_FILE, csv.getLines());
+
+        Map<String, byte[]> snapshots = new LinkedHashMap<>();
+        if (FileHandler.isBinarySnapshotsEnabled()) {
+            BinarySnapshotWriter snapshot = new BinarySnapshotWriter(SNAPSHOT_VERSION);
+            writePayments(snapshot);
+            snapshots.put(PAYMENT_SNAPSHOT_FILE, snapshot.toByteArray());
+        }
+
+        return FileHandler.writeFiles(files, snapshots);
+    }
+
+    private void writePayments(RecordWriter writer) {
+        for (Payment payment : getAllPayments()) {
+            writer.addString(payment.getPaymentId())
+                    .addString(payment.getUserId())
+                    .addString(payment.getOrderId())
+                    .addDouble(payment.getAmount())
+                    .addEnum(payment.getMethod())
+                    .addEnum(payment.getStatus());
 
-        for (Payment payment : payments) {
-            String line;
             if (payment instanceof CashPayment) {
                 CashPayment cp = (CashPayment) payment;
-                line = FileHandler.formatCSVLine(
-                        payment.getPaymentId(),
-                        payment.getUserId(),
-                        payment.getOrderId(),
-                        String.valueOf(payment.getAmount()),
-                        payment.getMethod().toString(),
-                        payment.getStatus().toString(),
-                        cp.getCitizenId() != null ? cp.getCitizenId() : "");
+                writer.addString(cp.getCitizenId());
             } else if (payment instanceof EWalletPayment) {
                 EWalletPayment ep = (EWalletPayment) payment;
-                line = FileHandler.formatCSVLine(
-                        payment.getPaymentId(),
-                        payment.getUserId(),
-                        payment.getOrderId(),
-                        String.valueOf(payment.getAmount()),
-                        payment.getMethod().toString(),
-                        payment.getStatus().toString(),
-                        ep.getWalletId());
+                writer.addString(ep.getWalletId());
             } else if (payment instanceof CreditCardPayment) {
                 CreditCardPayment ccp = (CreditCardPayment) payment;
-                line = FileHandler.formatCSVLine(
-                        payment.getPaymentId(),
-                        payment.getUserId(),
-                        payment.getOrderId(),
-                        String.valueOf(payment.getAmount()),
-                        payment.getMethod().toString(),
-                        payment.getStatus().toString(),
-                        ccp.getCardNumber(),
-                        ccp.getCardHolder(),
-                        ccp.getExpiry(),
-                        ccp.getCvv());
-            } else {
-                line = FileHandler.formatCSVLine(
-                        payment.getPaymentId(),
-                        payment.getUserId(),
-                        payment.getOrderId(),
-                        String.valueOf(payment.getAmount()),
-                        payment.getMethod().toString(),
-                        payment.getStatus().toString());
+                writer.addString(ccp.getCardNumber())
+                        .addString(ccp.getCardHolder())
+                        .addString(ccp.getExpiry())
+                        .addString(ccp.getCvv());
             }
-            lines.add(line);
-        }
 
-        FileHandler.writeFile(PAYMENT_FILE, lines);
+            writer.addString(payment.getCreatedAt().toString());
+            writer.endRecord();
+        }
     }
 
     public Payment createPayment(String userId, String orderId, double amount, PaymentMethod method,
@@ -179,8 +217,10 @@ public class PaymentService {
                 throw new PaymentFailedException(paymentId, "Unsupported payment method: " + method);
         }
 
-        payments.add(payment);
-        saveToFile();
+        payments.put(paymentId, payment);
+        indexForSearch(payment);
+        metrics.recordPaymentCreated(payment);
+        scheduleSave();
         return payment;
     }
 
@@ -191,21 +231,30 @@ public class PaymentService {
             throw new PaymentFailedException(paymentId, "Payment not found");
         }
 
-        if (payment.getStatus() != PaymentStatus.PENDING) {
-            throw new PaymentFailedException(paymentId,
-                    "Payment already processed with status: " + payment.getStatus());
-        }
-
-        if (payment instanceof CashPayment) {
-            CashPayment cashPayment = (CashPayment) payment;
-            if (cashPayment.getReceivedAmount() == 0) {
+        boolean result;
+        synchronized (payment) {
+            if (payment.getStatus() != PaymentStatus.PENDING) {
                 throw new PaymentFailedException(paymentId,
-                        "Received amount must be set before processing cash payment");
+                        "Payment already processed with status: " + payment.getStatus());
             }
-        }
 
-        boolean result = payment.processPayment();
-        saveToFile();
+            if (payment instanceof CashPayment) {
+                CashPayment cashPayment = (CashPayment) payment;
+                if (cashPayment.getReceivedAmount() == 0) {
+                    throw new PaymentFailedException(paymentId,
+                            "Received amount must be set before processing cash payment");
+                }
+            }
+
+            PaymentStatus previousStatus = payment.getStatus();
+            try {
+                result = payment.processPayment();
+            } finally {
+                indexForSearch(payment);
+                metrics.recordPaymentStatusChange(payment, previousStatus);
+            }
+        }
+        scheduleSave();
         return result;
     }
 
@@ -216,62 +265,81 @@ public class PaymentService {
             throw new PaymentFailedException(paymentId, "Payment not found");
         }
 
-        boolean result = payment.refund();
-        saveToFile();
+        boolean result;
+        synchronized (payment) {
+            PaymentStatus previousStatus = payment.getStatus();
+            result = payment.refund();
+            indexForSearch(payment);
+            metrics.recordPaymentStatusChange(payment, previousStatus);
+        }
+        scheduleSave();
         return result;
     }
 
     public Payment getPaymentById(String paymentId) {
-        return payments.stream()
-                .filter(p -> p.getPaymentId().equals(paymentId))
-                .findFirst()
-                .orElse(null);
+        if (paymentId == null) {
+            return null;
+        }
+        return payments.get(paymentId);
+    }
+
+    private List<Payment> sortedList(Collection<Payment> values) {
+        List<Payment> list = new ArrayList<>(values);
+        list.sort(BY_CREATED_AT);
+        return list;
     }
 
     public List<Payment> getPaymentsByUserId(String userId) {
         List<Payment> userPayments = new ArrayList<>();
 
-        for (Payment payment : payments) {
+        for (Payment payment : payments.values()) {
             if (payment.getUserId().equals(userId)) {
                 userPayments.add(payment);
             }
         }
 
+        userPayments.sort(BY_CREATED_AT);
         return userPayments;
     }
 
     public List<Payment> getPaymentsByOrderId(String orderId) {
         List<Payment> orderPayments = new ArrayList<>();
 
-        for (Payment payment : payments) {
+        for (Payment payment : payments.values()) {
             if (payment.getOrderId().equals(orderId)) {
                 orderPayments.add(payment);
             }
         }
 
+        orderPayments.sort(BY_CREATED_AT);
         return orderPayments;
     }
 
     public List<Payment> getPaymentsByStatus(PaymentStatus status) {
         List<Payment> statusPayments = new ArrayList<>();
 
-        for (Payment payment : payments) {
+        for (Payment payment : payments.values()) {
             if (payment.getStatus() == status) {
                 statusPayments.add(payment);
             }
         }
 
+        statusPayments.sort(BY_CREATED_AT);
         return statusPayments;
     }
 
+    public int getPaymentCount() {
+        return payments.size();
+    }
+
     public List<Payment> getAllPayments() {
-        return new ArrayList<>(payments);
+        return sortedList(payments.values());
     }
 
     public double getTotalPaymentAmount(String userId) {
         double total = 0.0;
 
-        for (Payment payment : payments) {
+        for (Payment payment : payments.values()) {
             if (payment.getUserId().equals(userId) && payment.getStatus() == PaymentStatus.SUCCESS) {
                 total += payment.getAmount();
             }
@@ -287,15 +355,50 @@ public class PaymentService {
             throw new PaymentFailedException(paymentId, "Payment not found");
         }
 
-        if (payment.getStatus() != PaymentStatus.PENDING) {
-            throw new PaymentFailedException(paymentId, "Cannot cancel non-pending payment");
+        synchronized (payment) {
+            if (payment.getStatus() != PaymentStatus.PENDING) {
+                throw new PaymentFailedException(paymentId, "Cannot cancel non-pending payment");
+            }
+
+            payment.setStatus(PaymentStatus.CANCELLED);
+            indexForSearch(payment);
+            metrics.recordPaymentStatusChange(payment, PaymentStatus.PENDING);
+        }
+        scheduleSave();
+        return true;
+    }
+
+    public boolean updatePaymentStatus(String paymentId, PaymentStatus status) {
+        Payment payment = getPaymentById(paymentId);
+
+        if (payment == null) {
+            return false;
         }
 
-        payment.setStatus(PaymentStatus.CANCELLED);
-        saveToFile();
+        synchronized (payment) {
+            PaymentStatus previousStatus = payment.getStatus();
+            payment.setStatus(status);
+            indexForSearch(payment);
+            metrics.recordPaymentStatusChange(payment, previousStatus);
+        }
+        scheduleSave();
         return true;
     }
 
+    public List<Payment> searchPayments(String query) {
+        List<Payment> results = new ArrayList<>();
+
+        for (String paymentId : searchIndex.search(query)) {
+            Payment payment = payments.get(paymentId);
+            if (payment != null) {
+                results.add(payment);
+            }
+        }
+
+        results.sort(BY_CREATED_AT);
+        return results;
+    }
+
     public List<Payment> getPendingPayments() {
         return getPaymentsByStatus(PaymentStatus.PENDING);
     }
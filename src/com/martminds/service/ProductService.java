@@ -1,110 +1,320 @@
 package com.martminds.service;
 
+import com.martminds.exception.OutOfStockException;
 import com.martminds.model.product.Product;
+import com.martminds.util.BinarySnapshotWriter;
+import com.martminds.util.CSVReader;
+import com.martminds.util.CSVWriter;
+import com.martminds.util.DataRecord;
 import com.martminds.util.FileHandler;
+import com.martminds.util.InvertedIndex;
 import com.martminds.util.Logger;
+import com.martminds.util.PersistenceScheduler;
+import com.martminds.util.RecordWriter;
+import com.martminds.util.ValidationUtil;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class ProductService {
-    private static ProductService instance;
-    private List<Product> products;
+    private final Map<String, Product> products;
+    private final Map<String, Map<String, Product>> productsByStore;
+    private final Map<String, Map<String, Product>> productsByCategory;
+    private final InvertedIndex<String> searchIndex;
+    private final ReadWriteLock logLock;
+    private final AtomicInteger pendingLogEntries;
     private static final String PRODUCT_FILE = "products.csv";
+    private static final String PRODUCT_LOG_FILE = "products.log";
+    private static final String PRODUCT_SNAPSHOT_FILE = "products.bin";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int COMPACTION_THRESHOLD = 1000;
+    private static final String LOG_STOCK = "STOCK";
+    private static final String LOG_ADD = "ADD";
+    private static final String LOG_REMOVE = "REMOVE";
+    private static final String LOG_UPDATE = "UPDATE";
+
+    private static class Holder {
+        private static final ProductService INSTANCE = new ProductService();
+    }
 
     private ProductService() {
-        this.products = new ArrayList<>();
+        this.products = new ConcurrentSkipListMap<>();
+        this.productsByStore = new ConcurrentHashMap<>();
+        this.productsByCategory = new ConcurrentHashMap<>();
+        this.searchIndex = new InvertedIndex<>();
+        this.logLock = new ReentrantReadWriteLock();
+        this.pendingLogEntries = new AtomicInteger();
         loadFromFile();
+        replayLog();
+        PersistenceScheduler.getInstance().register(PRODUCT_FILE, this::compact);
         if (products.isEmpty()) {
             createSampleProducts();
-            saveToFile();
+            compact();
+        } else if (pendingLogEntries.get() >= COMPACTION_THRESHOLD) {
+            compact();
         }
     }
 
     public static ProductService getInstance() {
-        if (instance == null) {
-            instance = new ProductService();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     private void loadFromFile() {
-        List<String> lines = FileHandler.readFile(PRODUCT_FILE);
+        if (!FileHandler.forEachSnapshotRecord(PRODUCT_SNAPSHOT_FILE, SNAPSHOT_VERSION, PRODUCT_FILE,
+                this::loadProductRecord)) {
+            FileHandler.forEachRecord(PRODUCT_FILE, this::loadProductRecord);
+        }
 
-        for (String line : lines) {
-            if (line.trim().isEmpty())
-                continue;
+        Logger.info("Loaded " + products.size() + " products from file");
+    }
 
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 7)
-                    continue;
+    private void loadProductRecord(DataRecord record) {
+        try {
+            if (record.getFieldCount() < 7)
+                return;
 
-                String productId = fields[0];
-                String name = fields[1];
-                double price = Double.parseDouble(fields[2]);
-                int stock = Integer.parseInt(fields[3]);
-                String description = fields[4];
-                String storeId = fields[5];
-                String category = fields[6];
+            Product product = parseProduct(record, 0);
+            if (!products.containsKey(product.getProductId())) {
+                indexProduct(product);
+            }
+        } catch (Exception e) {
+            Logger.error("Error parsing product line: " + record.getRecord() + " - " + e.getMessage());
+        }
+    }
+
+    private void replayLog() {
+        if (!FileHandler.fileExists(PRODUCT_LOG_FILE)) {
+            return;
+        }
+
+        FileHandler.forEachRecord(PRODUCT_LOG_FILE, this::replayLogRecord);
+
+        if (pendingLogEntries.get() > 0) {
+            Logger.info("Replayed " + pendingLogEntries.get() + " product changes from log");
+        }
+    }
 
-                Product product = new Product(productId, name, price, stock, description, storeId, category);
-                products.add(product);
-            } catch (Exception e) {
-                Logger.error("Error parsing product line: " + line + " - " + e.getMessage());
+    private void replayLogRecord(CSVReader record) {
+        try {
+            if (record.fieldEqualsIgnoreCase(0, LOG_STOCK)) {
+                Product product = getProductById(record.getString(1));
+                if (product != null) {
+                    product.updateStock(record.getInt(2));
+                }
+            } else if (record.fieldEqualsIgnoreCase(0, LOG_ADD)) {
+                if (record.getFieldCount() >= 8 && getProductById(record.getString(1)) == null) {
+                    indexProduct(parseProduct(record, 1));
+                }
+            } else if (record.fieldEqualsIgnoreCase(0, LOG_REMOVE)) {
+                Product removed = getProductById(record.getString(1));
+                if (removed != null) {
+                    unindexProduct(removed);
+                }
+            } else if (record.fieldEqualsIgnoreCase(0, LOG_UPDATE)) {
+                Product product = getProductById(record.getString(1));
+                if (record.getFieldCount() >= 6 && product != null) {
+                    applyDetails(product, record.getString(2), record.getDouble(3), record.getString(4),
+                            record.getString(5));
+                }
+            } else {
+                Logger.warning("Unknown product log record: " + record.getRecord());
+                return;
             }
+            pendingLogEntries.incrementAndGet();
+        } catch (Exception e) {
+            Logger.error("Error replaying product log line: " + record.getRecord() + " - " + e.getMessage());
         }
+    }
 
-        Logger.info("Loaded " + products.size() + " products from file");
+    private void indexProduct(Product product) {
+        products.put(product.getProductId(), product);
+        addToBucket(productsByStore, product.getStoreId(), product);
+        addToBucket(productsByCategory, categoryKey(product.getCategory()), product);
+        indexForSearch(product);
+    }
+
+    private void indexForSearch(Product product) {
+        searchIndex.put(product.getProductId(), product.getProductId(), product.getName(),
+                product.getDescription(), product.getCategory(), product.getStoreId());
+    }
+
+    private void unindexProduct(Product product) {
+        products.remove(product.getProductId(), product);
+        removeFromBucket(productsByStore, product.getStoreId(), product.getProductId());
+        removeFromBucket(productsByCategory, categoryKey(product.getCategory()), product.getProductId());
+        searchIndex.remove(product.getProductId());
+    }
+
+    private void addToBucket(Map<String, Map<String, Product>> index, String key, Product product) {
+        index.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                bucket = new ConcurrentSkipListMap<>();
+            }
+            bucket.put(product.getProductId(), product);
+            return bucket;
+        });
+    }
+
+    private void removeFromBucket(Map<String, Map<String, Product>> index, String key, String productId) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(productId);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private String categoryKey(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    private Product parseProduct(DataRecord record, int offset) {
+        String productId = record.getString(offset);
+        String name = record.getString(offset + 1);
+        double price = record.getDouble(offset + 2);
+        int stock = record.getInt(offset + 3);
+        String description = record.getString(offset + 4);
+        String storeId = record.getString(offset + 5);
+        String category = record.getString(offset + 6);
+
+        return new Product(productId, name, price, stock, description, storeId, category);
     }
 
-    private void saveToFile() {
-        List<String> lines = new ArrayList<>();
+    private String[] productFields(Product product) {
+        return new String[] {
+                product.getProductId(),
+                product.getName(),
+                String.valueOf(product.getPrice()),
+                String.valueOf(product.getStock()),
+                product.getDescription(),
+                product.getStoreId(),
+                product.getCategory() };
+    }
 
-        for (Product product : products) {
-            String line = FileHandler.formatCSVLine(
-                    product.getProductId(),
-                    product.getName(),
-                    String.valueOf(product.getPrice()),
-                    String.valueOf(product.getStock()),
-                    product.getDescription(),
-                    product.getStoreId(),
-                    product.getCategory());
-            lines.add(line);
+    private void writeProducts(RecordWriter writer) {
+        for (Product product : products.values()) {
+            writer.addString(product.getProductId())
+                    .addString(product.getName())
+                    .addDouble(product.getPrice())
+                    .addInt(product.getStock())
+                    .addString(product.getDescription())
+                    .addString(product.getStoreId())
+                    .addString(product.getCategory())
+                    .endRecord();
         }
+    }
 
-        FileHandler.writeFile(PRODUCT_FILE, lines);
+    private boolean appendToLog(String... fields) {
+        return appendToLog(Collections.singletonList(FileHandler.formatCSVLine(fields)));
     }
 
-    public List<Product> getAllProducts() {
-        return new ArrayList<>(products);
+    private boolean appendToLog(List<String> lines) {
+        if (lines.isEmpty()) {
+            return false;
+        }
+
+        if (!FileHandler.appendLines(PRODUCT_LOG_FILE, lines)) {
+            return true;
+        }
+
+        return pendingLogEntries.addAndGet(lines.size()) >= COMPACTION_THRESHOLD;
     }
 
-    public Product getProductById(String productId) {
-        return products.stream()
-                .filter(p -> p.getProductId().equals(productId))
-                .findFirst()
-                .orElse(null);
+    private void requestCompaction(boolean needed) {
+        if (needed) {
+            PersistenceScheduler.getInstance().markDirty(PRODUCT_FILE);
+        }
     }
 
-    public List<Product> getProductsByCategory(String category) {
-        List<Product> results = new ArrayList<>();
+    public boolean compact() {
+        logLock.writeLock().lock();
+        try {
+            CSVWriter csv = new CSVWriter();
+            writeProducts(csv);
 
-        for (Product product : products) {
-            if (product.getCategory().equalsIgnoreCase(category)) {
-                results.add(product);
+            Map<String, List<String>> files = new LinkedHashMap<>();
+            files.put(PRODUCT_FILE, csv.getLines());
+            files.put(PRODUCT_LOG_FILE, new ArrayList<>());
+
+            Map<String, byte[]> snapshots = new LinkedHashMap<>();
+            if (FileHandler.isBinarySnapshotsEnabled()) {
+                BinarySnapshotWriter snapshot = new BinarySnapshotWriter(SNAPSHOT_VERSION);
+                writeProducts(snapshot);
+                snapshots.put(PRODUCT_SNAPSHOT_FILE, snapshot.toByteArray());
+            }
+
+            if (!FileHandler.writeFiles(files, snapshots)) {
+                return false;
             }
+            pendingLogEntries.set(0);
+            return true;
+        } finally {
+            logLock.writeLock().unlock();
         }
+    }
 
-        return results;
+    public int getProductCount() {
+        return products.size();
+    }
+
+    public int countLowStockProducts(int threshold) {
+        int count = 0;
+        for (Product product : products.values()) {
+            int stock = product.getStock();
+            if (stock > 0 && stock < threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<Product> getAllProducts() {
+        return new ArrayList<>(products.values());
+    }
+
+    public Product getProductById(String productId) {
+        if (productId == null) {
+            return null;
+        }
+        return products.get(productId);
+    }
+
+    public List<Product> getProductsByCategory(String category) {
+        Map<String, Product> bucket = productsByCategory.get(categoryKey(category));
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
     }
 
     public boolean addProduct(Product product) {
-        if (product == null || getProductById(product.getProductId()) != null) {
+        if (product == null) {
             return false;
         }
 
-        products.add(product);
-        saveToFile();
+        boolean compactionNeeded;
+        logLock.readLock().lock();
+        try {
+            if (products.putIfAbsent(product.getProductId(), product) != null) {
+                return false;
+            }
+
+            indexProduct(product);
+
+            String[] fields = productFields(product);
+            String[] record = new String[fields.length + 1];
+            record[0] = LOG_ADD;
+            System.arraycopy(fields, 0, record, 1, fields.length);
+            compactionNeeded = appendToLog(record);
+        } finally {
+            logLock.readLock().unlock();
+        }
+        requestCompaction(compactionNeeded);
         return true;
     }
 
@@ -115,30 +325,93 @@ public class ProductService {
             return false;
         }
 
-        int newStock = product.getStock() + quantity;
+        boolean compactionNeeded;
+        logLock.readLock().lock();
+        try {
+            if (quantity < 0) {
+                if (!product.tryReserve(-quantity)) {
+                    return false;
+                }
+            } else {
+                product.release(quantity);
+            }
+            compactionNeeded = appendToLog(LOG_STOCK, productId, String.valueOf(quantity));
+        } finally {
+            logLock.readLock().unlock();
+        }
+        requestCompaction(compactionNeeded);
+        return true;
+    }
 
-        if (newStock < 0) {
-            return false;
+    public void reserveStock(Map<String, Integer> quantities) throws OutOfStockException {
+        Map<Product, Integer> reserved = new LinkedHashMap<>();
+        boolean compactionNeeded;
+
+        logLock.readLock().lock();
+        try {
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                int quantity = entry.getValue();
+                if (quantity <= 0) {
+                    releaseReserved(reserved);
+                    throw new IllegalArgumentException("Quantity must be greater than 0");
+                }
+
+                Product product = getProductById(entry.getKey());
+                if (product == null || !product.tryReserve(quantity)) {
+                    releaseReserved(reserved);
+                    throw new OutOfStockException(
+                            "Product " + (product != null ? product.getName() : entry.getKey()) + " is out of stock!");
+                }
+                reserved.put(product, quantity);
+            }
+
+            List<String> records = new ArrayList<>();
+            for (Map.Entry<Product, Integer> entry : reserved.entrySet()) {
+                records.add(FileHandler.formatCSVLine(LOG_STOCK, entry.getKey().getProductId(),
+                        String.valueOf(-entry.getValue())));
+            }
+            compactionNeeded = appendToLog(records);
+        } finally {
+            logLock.readLock().unlock();
         }
+        requestCompaction(compactionNeeded);
+    }
 
-        product.updateStock(quantity);
-        saveToFile();
-        return true;
+    private void releaseReserved(Map<Product, Integer> reserved) {
+        for (Map.Entry<Product, Integer> entry : reserved.entrySet()) {
+            entry.getKey().release(entry.getValue());
+        }
     }
 
-    public List<Product> getProductsByStore(String storeId) {
-        List<Product> results = new ArrayList<>();
-        for (Product product : products) {
-            if (product.getStoreId().equals(storeId)) {
-                results.add(product);
+    public void releaseStock(Map<String, Integer> quantities) {
+        boolean compactionNeeded;
+        logLock.readLock().lock();
+        try {
+            List<String> records = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                Product product = getProductById(entry.getKey());
+                if (product == null || entry.getValue() <= 0) {
+                    continue;
+                }
+                product.release(entry.getValue());
+                records.add(FileHandler.formatCSVLine(LOG_STOCK, product.getProductId(),
+                        String.valueOf(entry.getValue())));
             }
+            compactionNeeded = appendToLog(records);
+        } finally {
+            logLock.readLock().unlock();
         }
-        return results;
+        requestCompaction(compactionNeeded);
+    }
+
+    public List<Product> getProductsByStore(String storeId) {
+        Map<String, Product> bucket = productsByStore.get(storeId);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
     }
 
     public List<Product> getAvailableProducts() {
         List<Product> results = new ArrayList<>();
-        for (Product product : products) {
+        for (Product product : products.values()) {
             if (product.isAvailable()) {
                 results.add(product);
             }
@@ -151,18 +424,90 @@ public class ProductService {
         if (product == null) {
             return false;
         }
-        boolean removed = products.remove(product);
-        if (removed) {
-            saveToFile();
+
+        boolean compactionNeeded;
+        logLock.readLock().lock();
+        try {
+            synchronized (product) {
+                if (products.get(productId) != product) {
+                    return false;
+                }
+                unindexProduct(product);
+                compactionNeeded = appendToLog(LOG_REMOVE, productId);
+            }
+        } finally {
+            logLock.readLock().unlock();
+        }
+        requestCompaction(compactionNeeded);
+        return true;
+    }
+
+    public boolean updateProductCategory(String productId, String category) {
+        return updateProduct(productId, null, 0, null, category);
+    }
+
+    public boolean updateProductDetails(String productId, String name, double price, String description) {
+        return updateProduct(productId, name, price, description, null);
+    }
+
+    private boolean updateProduct(String productId, String name, double price, String description,
+            String category) {
+        Product product = getProductById(productId);
+        if (product == null) {
+            return false;
+        }
+
+        boolean compactionNeeded;
+        logLock.readLock().lock();
+        try {
+            synchronized (product) {
+                applyDetails(product, name, price, description, category);
+                compactionNeeded = appendToLog(LOG_UPDATE, productId, product.getName(),
+                        String.valueOf(product.getPrice()), product.getDescription(), product.getCategory());
+            }
+        } finally {
+            logLock.readLock().unlock();
+        }
+        requestCompaction(compactionNeeded);
+        return true;
+    }
+
+    private void applyDetails(Product product, String name, double price, String description, String category) {
+        if (ValidationUtil.isNotEmpty(name)) {
+            product.setName(name);
+        }
+        if (price > 0) {
+            product.setPrice(price);
+        }
+        if (ValidationUtil.isNotEmpty(description)) {
+            product.setDescription(description);
+        }
+        if (category != null && !category.equals(product.getCategory())) {
+            removeFromBucket(productsByCategory, categoryKey(product.getCategory()), product.getProductId());
+            product.setCategory(category);
+            addToBucket(productsByCategory, categoryKey(category), product);
         }
-        return removed;
+        indexForSearch(product);
+    }
+
+    public List<Product> searchProducts(String query) {
+        List<Product> results = new ArrayList<>();
+        for (String productId : searchIndex.search(query)) {
+            Product product = products.get(productId);
+            if (product != null) {
+                results.add(product);
+            }
+        }
+        results.sort(Comparator.comparing(Product::getProductId));
+        return results;
     }
 
     public List<String> getAllCategories() {
         List<String> categories = new ArrayList<>();
-        for (Product product : products) {
-            if (!categories.contains(product.getCategory())) {
-                categories.add(product.getCategory());
+        for (Map<String, Product> bucket : productsByCategory.values()) {
+            Iterator<Product> iterator = bucket.values().iterator();
+            if (iterator.hasNext()) {
+                categories.add(iterator.next().getCategory());
             }
         }
         return categories;
@@ -174,21 +519,21 @@ public class ProductService {
     }
 
     private void createSampleProducts() {
-        products.add(
+        indexProduct(
                 new Product("P001", "Indomie Goreng", 3500, 100, "Mie instan rasa goreng original", "S001", "Food"));
-        products.add(new Product("P002", "Aqua 600ml", 4000, 150, "Air mineral kemasan botol", "S001", "Beverage"));
-        products.add(new Product("P003", "Silverqueen Chocolate", 12000, 50, "Coklat susu premium", "S001", "Snack"));
-        products.add(new Product("P004", "Teh Botol Sosro", 5000, 80, "Minuman teh dalam botol", "S001", "Beverage"));
-        products.add(new Product("P005", "Chitato Sapi Panggang", 10000, 60, "Keripik kentang rasa sapi panggang",
+        indexProduct(new Product("P002", "Aqua 600ml", 4000, 150, "Air mineral kemasan botol", "S001", "Beverage"));
+        indexProduct(new Product("P003", "Silverqueen Chocolate", 12000, 50, "Coklat susu premium", "S001", "Snack"));
+        indexProduct(new Product("P004", "Teh Botol Sosro", 5000, 80, "Minuman teh dalam botol", "S001", "Beverage"));
+        indexProduct(new Product("P005", "Chitato Sapi Panggang", 10000, 60, "Keripik kentang rasa sapi panggang",
                 "S001", "Snack"));
-        products.add(
+        indexProduct(
                 new Product("P006", "Ultra Milk Coklat", 7000, 70, "Susu UHT rasa coklat 250ml", "S001", "Beverage"));
-        products.add(new Product("P007", "Sarimi Ayam Bawang", 3000, 120, "Mie instan kuah rasa ayam bawang", "S001",
+        indexProduct(new Product("P007", "Sarimi Ayam Bawang", 3000, 120, "Mie instan kuah rasa ayam bawang", "S001",
                 "Food"));
-        products.add(new Product("P008", "Good Day Cappuccino", 2500, 90, "Kopi instan rasa cappuccino", "S001",
+        indexProduct(new Product("P008", "Good Day Cappuccino", 2500, 90, "Kopi instan rasa cappuccino", "S001",
                 "Beverage"));
-        products.add(new Product("P009", "Oreo Original", 9500, 45, "Biskuit sandwich krim vanilla", "S001", "Snack"));
-        products.add(new Product("P010", "Pocari Sweat 500ml", 8000, 65, "Minuman isotonik pengganti ion tubuh", "S001",
+        indexProduct(new Product("P009", "Oreo Original", 9500, 45, "Biskuit sandwich krim vanilla", "S001", "Snack"));
+        indexProduct(new Product("P010", "Pocari Sweat 500ml", 8000, 65, "Minuman isotonik pengganti ion tubuh", "S001",
                 "Beverage"));
     }
 }
@@ -0,0 +1,125 @@
+package com.martminds.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.martminds.model.order.Order;
+import com.martminds.model.payment.Payment;
+import com.martminds.model.product.Product;
+import com.martminds.model.report.InventorySummary;
+import com.martminds.model.report.PaymentSummary;
+import com.martminds.model.report.SalesSummary;
+
+public class ReportEngine {
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private final ForkJoinPool pool;
+
+    private static class Holder {
+        private static final ReportEngine INSTANCE = new ReportEngine(ForkJoinPool.commonPool());
+    }
+
+    public ReportEngine(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.pool = pool;
+    }
+
+    public static ReportEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public SalesSummary summarizeSales(LocalDateTime from, LocalDateTime to) {
+        List<Order> orders = OrderService.getInstance().getOrdersCreatedBetween(from, to);
+        return summarizeSales(orders);
+    }
+
+    public SalesSummary summarizeSales(List<Order> orders) {
+        return aggregate(orders, order -> true, SalesSummary::new, SalesSummary::accumulate, SalesSummary::merge);
+    }
+
+    public PaymentSummary summarizePayments(LocalDateTime from, LocalDateTime to) {
+        List<Payment> payments = PaymentService.getInstance().getAllPayments();
+        return aggregate(payments, payment -> inRange(payment.getCreatedAt(), from, to),
+                PaymentSummary::new, PaymentSummary::accumulate, PaymentSummary::merge);
+    }
+
+    public PaymentSummary summarizePayments(List<Payment> payments) {
+        return aggregate(payments, payment -> true, PaymentSummary::new, PaymentSummary::accumulate,
+                PaymentSummary::merge);
+    }
+
+    public InventorySummary summarizeInventory(int lowStockThreshold, int listLimit) {
+        List<Product> products = ProductService.getInstance().getAllProducts();
+        return aggregate(products, product -> true, () -> new InventorySummary(lowStockThreshold, listLimit),
+                InventorySummary::accumulate, InventorySummary::merge);
+    }
+
+    public <T, A> A aggregate(List<T> items, Predicate<? super T> filter, Supplier<A> supplier,
+            BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+        if (items.size() <= SEQUENTIAL_THRESHOLD) {
+            return new AggregateTask<>(items, 0, items.size(), filter, supplier, accumulator, combiner).compute();
+        }
+        return pool.invoke(new AggregateTask<>(items, 0, items.size(), filter, supplier, accumulator, combiner));
+    }
+
+    private static boolean inRange(LocalDateTime time, LocalDateTime from, LocalDateTime to) {
+        if (time == null) {
+            return from == null && to == null;
+        }
+        return (from == null || !time.isBefore(from)) && (to == null || time.isBefore(to));
+    }
+
+    private static class AggregateTask<T, A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final int start;
+        private final int end;
+        private final Predicate<? super T> filter;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super T> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        private AggregateTask(List<T> items, int start, int end, Predicate<? super T> filter, Supplier<A> supplier,
+                BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+            this.filter = filter;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                A result = supplier.get();
+                for (int i = start; i < end; i++) {
+                    T item = items.get(i);
+                    if (filter.test(item)) {
+                        accumulator.accept(result, item);
+                    }
+                }
+                return result;
+            }
+
+            int middle = (start + end) >>> 1;
+            AggregateTask<T, A> left = new AggregateTask<>(items, start, middle, filter, supplier, accumulator,
+                    combiner);
+            AggregateTask<T, A> right = new AggregateTask<>(items, middle, end, filter, supplier, accumulator,
+                    combiner);
+            left.fork();
+            A rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+        }
+    }
+}
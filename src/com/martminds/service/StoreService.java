@@ -0,0 +1,73 @@
+package com.martminds.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.martminds.model.common.Address;
+import com.martminds.model.store.Store;
+
+public class StoreService {
+    private final Map<String, Store> stores;
+
+    private static class Holder {
+        private static final StoreService INSTANCE = new StoreService();
+    }
+
+    private StoreService() {
+        this.stores = new ConcurrentSkipListMap<>();
+        createDefaultStores();
+    }
+
+    public static StoreService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private void createDefaultStores() {
+        Address defaultAddress = new Address(
+                "123 Main Street",
+                "Jakarta",
+                "12170",
+                "Central Jakarta",
+                "DKI Jakarta");
+        defaultAddress.setCoordinates(-6.1862, 106.8341);
+
+        addStore(new Store("S001", "MartMinds Central", defaultAddress, "081234567890"));
+    }
+
+    private String key(String storeId) {
+        return storeId.toUpperCase(Locale.ROOT);
+    }
+
+    public List<Store> getAllStores() {
+        return new ArrayList<>(stores.values());
+    }
+
+    public Store getStoreById(String storeId) {
+        if (storeId == null) {
+            return null;
+        }
+        return stores.get(key(storeId));
+    }
+
+    public boolean addStore(Store store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store cannot be null");
+        }
+        if (stores.putIfAbsent(key(store.getStoreId()), store) != null) {
+            return false;
+        }
+        DistanceService.getInstance().invalidateStore(store.getStoreId());
+        return true;
+    }
+
+    public boolean removeStore(String storeId) {
+        if (storeId == null || stores.remove(key(storeId)) == null) {
+            return false;
+        }
+        DistanceService.getInstance().invalidateStore(storeId);
+        return true;
+    }
+}
@@ -1,8 +1,13 @@
 package com.martminds.service;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import com.martminds.model.user.Admin;
 import com.martminds.model.user.Customer;
@@ -10,17 +15,37 @@ import com.martminds.model.user.Driver;
 import com.martminds.model.user.User;
 import com.martminds.model.common.Address;
 import com.martminds.enums.UserRole;
+import com.martminds.util.BinarySnapshotWriter;
+import com.martminds.util.CSVWriter;
+import com.martminds.util.DataRecord;
 import com.martminds.util.FileHandler;
 import com.martminds.util.Logger;
+import com.martminds.util.PersistenceScheduler;
+import com.martminds.util.RecordWriter;
 
 public class UserService {
-    private static UserService instance;
-    private List<User> users;
+    private final Map<String, User> users;
+    private final Map<String, User> usersByEmail;
+    private final Map<String, String> emailKeysById;
+    private final Map<UserRole, Map<String, User>> usersByRole;
     private static final String USER_FILE = "users.csv";
+    private static final String USER_SNAPSHOT_FILE = "users.bin";
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static class Holder {
+        private static final UserService INSTANCE = new UserService();
+    }
 
     private UserService() {
-        this.users = new ArrayList<>();
+        this.users = new ConcurrentSkipListMap<>();
+        this.usersByEmail = new ConcurrentHashMap<>();
+        this.emailKeysById = new ConcurrentHashMap<>();
+        this.usersByRole = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            usersByRole.put(role, new ConcurrentSkipListMap<>());
+        }
         loadFromFile();
+        PersistenceScheduler.getInstance().register(USER_FILE, this::saveToFile);
         if (users.isEmpty()) {
             createSampleUsers();
             saveToFile();
@@ -28,118 +53,162 @@ public class UserService {
     }
 
     public static UserService getInstance() {
-        if (instance == null) {
-            instance = new UserService();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     private void loadFromFile() {
-        List<String> lines = FileHandler.readFile(USER_FILE);
-
-        for (String line : lines) {
-            if (line.trim().isEmpty())
-                continue;
-
-            try {
-                String[] fields = FileHandler.parseCSVLine(line);
-                if (fields.length < 7)
-                    continue;
-
-                String userId = fields[0];
-                String name = fields[1];
-                String email = fields[2];
-                String password = fields[3];
-                String phone = fields[4];
-                double balance = Double.parseDouble(fields[5]);
-                UserRole role = UserRole.valueOf(fields[6]);
-
-                User user;
-                switch (role) {
-                    case ADMIN:
-                        user = new Admin(userId, name, email, password, phone, balance);
-                        break;
-                    case CUSTOMER:
-                        user = new Customer(userId, name, email, password, phone, balance);
-                        break;
-                    case DRIVER:
-                        user = new Driver(userId, name, email, password, phone, balance);
-                        break;
-                    default:
-                        continue;
-                }
-
-                if (fields.length >= 12) {
-                    String street = fields[7];
-                    String city = fields[8];
-                    String postalCode = fields[9];
-                    String district = fields[10];
-                    String province = fields[11];
-
-                    if (!street.isEmpty()) {
-                        Address address = new Address(street, city, postalCode, district, province);
-                        user.setAddress(address);
-                    }
-                }
-
-                users.add(user);
-            } catch (Exception e) {
-                Logger.error("Error parsing user line: " + line + " - " + e.getMessage());
-            }
+        if (!FileHandler.forEachSnapshotRecord(USER_SNAPSHOT_FILE, SNAPSHOT_VERSION, USER_FILE,
+                this::loadUserRecord)) {
+            FileHandler.forEachRecord(USER_FILE, this::loadUserRecord);
         }
 
         Logger.info("Loaded " + users.size() + " users from file");
     }
 
-    private void saveToFile() {
-        List<String> lines = new ArrayList<>();
+    private void loadUserRecord(DataRecord record) {
+        try {
+            if (record.getFieldCount() < 7)
+                return;
+
+            String userId = record.getString(0);
+            String name = record.getString(1);
+            String email = record.getString(2);
+            String password = record.getString(3);
+            String phone = record.getString(4);
+            double balance = record.getDouble(5);
+            UserRole role = record.getEnum(6, UserRole.class);
+
+            User user;
+            switch (role) {
+                case ADMIN:
+                    user = new Admin(userId, name, email, password, phone, balance);
+                    break;
+                case CUSTOMER:
+                    user = new Customer(userId, name, email, password, phone, balance);
+                    break;
+                case DRIVER:
+                    user = new Driver(userId, name, email, password, phone, balance);
+                    break;
+                default:
+                    return;
+            }
+
+            if (record.getFieldCount() >= 12 && !record.isEmpty(7)) {
+                String street = record.getString(7);
+                String city = record.getString(8);
+                String postalCode = record.getString(9);
+                String district = record.getString(10);
+                String province = record.getString(11);
+
+                Address address = new Address(street, city, postalCode, district, province);
+                user.setAddress(address);
+            }
+
+            if (users.containsKey(user.getUserId())) {
+                Logger.warning("Skipping duplicate user id " + user.getUserId());
+            } else if (findUserByEmail(user.getEmail()) != null) {
+                Logger.warning("Skipping user " + user.getUserId() + " with duplicate email " + user.getEmail());
+            } else {
+                indexUser(user);
+            }
+        } catch (Exception e) {
+            Logger.error("Error parsing user line: " + record.getRecord() + " - " + e.getMessage());
+        }
+    }
+
+    private void indexUser(User user) {
+        users.put(user.getUserId(), user);
+        String emailKey = emailKey(user.getEmail());
+        usersByEmail.put(emailKey, user);
+        emailKeysById.put(user.getUserId(), emailKey);
+        usersByRole.get(user.getRole()).put(user.getUserId(), user);
+    }
+
+    private void reindexUser(User user) {
+        String oldEmailKey = emailKeysById.get(user.getUserId());
+        if (oldEmailKey != null) {
+            usersByEmail.remove(oldEmailKey, user);
+        }
+        for (Map<String, User> roleUsers : usersByRole.values()) {
+            roleUsers.remove(user.getUserId());
+        }
+        indexUser(user);
+    }
+
+    private String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private void scheduleSave() {
+        PersistenceScheduler.getInstance().markDirty(USER_FILE);
+    }
+
+    private synchronized boolean saveToFile() {
+        CSVWriter csv = new CSVWriter();
+        writeUsers(csv);
 
-        for (User user : users) {
-            Address addr = user.getAddress();
-            String street = addr != null ? addr.getStreet() : "";
-            String city = addr != null ? addr.getCity() : "";
-            String postalCode = addr != null ? addr.getPostalCode() : "";
-            String district = addr != null ? addr.getDistrict() : "";
-            String province = addr != null ? addr.getProvince() : "";
+        Map<String, List<String>> files = new LinkedHashMap<>();
+        files.put(USER_FILE, csv.getLines());
 
-            String line = FileHandler.formatCSVLine(
-                    user.getUserId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPassword(),
-                    user.getPhone(),
-                    String.valueOf(user.getBalance()),
-                    user.getRole().toString(),
-                    street,
-                    city,
-                    postalCode,
-                    district,
-                    province);
-            lines.add(line);
+        Map<String, byte[]> snapshots = new LinkedHashMap<>();
+        if (FileHandler.isBinarySnapshotsEnabled()) {
+            BinarySnapshotWriter snapshot = new BinarySnapshotWriter(SNAPSHOT_VERSION);
+            writeUsers(snapshot);
+            snapshots.put(USER_SNAPSHOT_FILE, snapshot.toByteArray());
         }
 
-        FileHandler.writeFile(USER_FILE, lines);
+        return FileHandler.writeFiles(files, snapshots);
+    }
+
+    private void writeUsers(RecordWriter writer) {
+        for (User user : users.values()) {
+            synchronized (user) {
+                writeUser(user, writer);
+            }
+        }
+    }
+
+    private void writeUser(User user, RecordWriter writer) {
+        Address addr = user.getAddress();
+
+        writer.addString(user.getUserId())
+                .addString(user.getName())
+                .addString(user.getEmail())
+                .addString(user.getPassword())
+                .addString(user.getPhone())
+                .addDouble(user.getBalance())
+                .addEnum(user.getRole())
+                .addString(addr != null ? addr.getStreet() : "")
+                .addString(addr != null ? addr.getCity() : "")
+                .addString(addr != null ? addr.getPostalCode() : "")
+                .addString(addr != null ? addr.getDistrict() : "")
+                .addString(addr != null ? addr.getProvince() : "")
+                .endRecord();
     }
 
     public void registerUser(User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
-        if (findUserByEmail(user.getEmail()) != null) {
+        String emailKey = emailKey(user.getEmail());
+        if (usersByEmail.putIfAbsent(emailKey, user) != null) {
             throw new IllegalArgumentException("User with email " + user.getEmail() + " already exists");
         }
-        users.add(user);
-        saveToFile();
+        if (users.putIfAbsent(user.getUserId(), user) != null) {
+            usersByEmail.remove(emailKey, user);
+            throw new IllegalArgumentException("User with ID " + user.getUserId() + " already exists");
+        }
+        indexUser(user);
+        scheduleSave();
     }
 
     public User authenticate(String email, String password) {
         if (email == null || password == null) {
             return null;
         }
-        for (User u : users) {
-            if (u.getEmail().equalsIgnoreCase(email) && u.getPassword().equals(password)) {
-                return u;
-            }
+        User user = findUserByEmail(email);
+        if (user != null && user.getPassword().equals(password)) {
+            return user;
         }
         return null;
     }
@@ -148,56 +217,55 @@ public class UserService {
         if (id == null) {
             return null;
         }
-        for (User u : users) {
-            if (u.getUserId().equals(id)) {
-                return u;
-            }
-        }
-        return null;
+        return users.get(id);
     }
 
     public User findUserByEmail(String email) {
         if (email == null) {
             return null;
         }
-        for (User u : users) {
-            if (u.getEmail().equalsIgnoreCase(email)) {
-                return u;
-            }
-        }
-        return null;
+        return usersByEmail.get(emailKey(email));
     }
 
     public List<Customer> getAllCustomers() {
-        return users.stream()
-                .filter(u -> u.getRole() == UserRole.CUSTOMER)
-                .map(u -> (Customer) u)
-                .collect(Collectors.toList());
+        List<Customer> customers = new ArrayList<>();
+        for (User user : usersByRole.get(UserRole.CUSTOMER).values()) {
+            customers.add((Customer) user);
+        }
+        return customers;
     }
 
     public List<Driver> getAllDrivers() {
-        return users.stream()
-                .filter(u -> u.getRole() == UserRole.DRIVER)
-                .map(u -> (Driver) u)
-                .collect(Collectors.toList());
+        List<Driver> drivers = new ArrayList<>();
+        for (User user : usersByRole.get(UserRole.DRIVER).values()) {
+            drivers.add((Driver) user);
+        }
+        return drivers;
     }
 
     public List<Admin> getAllAdmins() {
-        return users.stream()
-                .filter(u -> u.getRole() == UserRole.ADMIN)
-                .map(u -> (Admin) u)
-                .collect(Collectors.toList());
+        List<Admin> admins = new ArrayList<>();
+        for (User user : usersByRole.get(UserRole.ADMIN).values()) {
+            admins.add((Admin) user);
+        }
+        return admins;
+    }
+
+    public int getUserCount() {
+        return users.size();
     }
 
     public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+        return new ArrayList<>(users.values());
     }
 
     public boolean updateUserBalance(String userId, double newBalance) {
         User user = findUserById(userId);
         if (user != null) {
-            user.setBalance(newBalance);
-            saveToFile();
+            synchronized (user) {
+                user.setBalance(newBalance);
+            }
+            scheduleSave();
             return true;
         }
         return false;
@@ -206,8 +274,10 @@ public class UserService {
     public boolean updateUserAddress(String userId, Address newAddress) {
         User user = findUserById(userId);
         if (user != null) {
-            user.setAddress(newAddress);
-            saveToFile();
+            synchronized (user) {
+                user.setAddress(newAddress);
+            }
+            scheduleSave();
             Logger.info("Updated address for user: " + userId);
             return true;
         }
@@ -215,15 +285,20 @@ public class UserService {
     }
 
     public void updateUser(User user) {
-        saveToFile();
+        if (user != null && users.get(user.getUserId()) == user) {
+            synchronized (user) {
+                reindexUser(user);
+            }
+        }
+        scheduleSave();
     }
 
     private void createSampleUsers() {
-        users.add(new Admin("A001", "Admin One", "admin@mail.com", "admin123", "08111111", 250000));
-        users.add(new Customer("C001", "Customer One", "cust1@mail.com", "cust123", "08222222", 500000));
-        users.add(new Customer("C002", "Customer Two", "cust2@mail.com", "cust123", "08333333", 400000));
-        users.add(new Driver("D001", "Driver One", "driver@mail.com", "driver123", "08444444", 300000));
-        users.add(new Driver("D002", "Driver Two", "driver2@mail.com", "driver123", "08555555", 300000));
+        indexUser(new Admin("A001", "Admin One", "admin@mail.com", "admin123", "08111111", 250000));
+        indexUser(new Customer("C001", "Customer One", "cust1@mail.com", "cust123", "08222222", 500000));
+        indexUser(new Customer("C002", "Customer Two", "cust2@mail.com", "cust123", "08333333", 400000));
+        indexUser(new Driver("D001", "Driver One", "driver@mail.com", "driver123", "08444444", 300000));
+        indexUser(new Driver("D002", "Driver Two", "driver2@mail.com", "driver123", "08555555", 300000));
     }
 
 }
@@ -0,0 +1,148 @@
+package com.martminds.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AssignmentSolver {
+    public static final int UNASSIGNED = -1;
+
+    private static final double INFEASIBLE_COST = 1e12;
+
+    public static int[] solve(double[][] cost, int maxOptimalSize) {
+        if (cost.length == 0) {
+            return new int[0];
+        }
+        if (Math.max(cost.length, cost[0].length) <= maxOptimalSize) {
+            return hungarian(cost);
+        }
+        return greedy(cost);
+    }
+
+    public static int[] greedy(double[][] cost) {
+        int rows = cost.length;
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, UNASSIGNED);
+        if (rows == 0) {
+            return assignment;
+        }
+        int columns = cost[0].length;
+
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if (isFeasible(cost[i][j])) {
+                    pairs.add(new int[] { i, j });
+                }
+            }
+        }
+        pairs.sort((a, b) -> Double.compare(cost[a[0]][a[1]], cost[b[0]][b[1]]));
+
+        boolean[] columnTaken = new boolean[columns];
+        int remaining = Math.min(rows, columns);
+        for (int[] pair : pairs) {
+            int row = pair[0];
+            int column = pair[1];
+            if (assignment[row] == UNASSIGNED && !columnTaken[column]) {
+                assignment[row] = column;
+                columnTaken[column] = true;
+                if (--remaining == 0) {
+                    break;
+                }
+            }
+        }
+        return assignment;
+    }
+
+    public static int[] hungarian(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int columns = cost[0].length;
+        if (rows > columns) {
+            double[][] transposed = new double[columns][rows];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    transposed[j][i] = cost[i][j];
+                }
+            }
+            int[] columnAssignment = hungarian(transposed);
+            int[] assignment = new int[rows];
+            Arrays.fill(assignment, UNASSIGNED);
+            for (int j = 0; j < columns; j++) {
+                if (columnAssignment[j] != UNASSIGNED) {
+                    assignment[columnAssignment[j]] = j;
+                }
+            }
+            return assignment;
+        }
+
+        double[] rowPotential = new double[rows + 1];
+        double[] columnPotential = new double[columns + 1];
+        int[] columnOwner = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+        double[] slack = new double[columns + 1];
+        boolean[] visited = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            columnOwner[0] = row;
+            int column = 0;
+            Arrays.fill(slack, Double.POSITIVE_INFINITY);
+            Arrays.fill(visited, false);
+            do {
+                visited[column] = true;
+                int owner = columnOwner[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (visited[j]) {
+                        continue;
+                    }
+                    double reduced = costAt(cost, owner - 1, j - 1) - rowPotential[owner] - columnPotential[j];
+                    if (reduced < slack[j]) {
+                        slack[j] = reduced;
+                        previousColumn[j] = column;
+                    }
+                    if (slack[j] < delta) {
+                        delta = slack[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (visited[j]) {
+                        rowPotential[columnOwner[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        slack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (columnOwner[column] != 0);
+            do {
+                int previous = previousColumn[column];
+                columnOwner[column] = columnOwner[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, UNASSIGNED);
+        for (int j = 1; j <= columns; j++) {
+            int row = columnOwner[j] - 1;
+            if (row >= 0 && isFeasible(cost[row][j - 1])) {
+                assignment[row] = j - 1;
+            }
+        }
+        return assignment;
+    }
+
+    private static double costAt(double[][] cost, int row, int column) {
+        double value = cost[row][column];
+        return isFeasible(value) ? value : INFEASIBLE_COST;
+    }
+
+    private static boolean isFeasible(double value) {
+        return value < INFEASIBLE_COST && !Double.isNaN(value);
+    }
+}
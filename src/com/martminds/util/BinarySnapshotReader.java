@@ -0,0 +1,223 @@
+package com.martminds.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class BinarySnapshotReader implements DataRecord {
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private int recordsRead;
+    private int nextRecord;
+    private int[] fieldPositions;
+    private int fieldCount;
+
+    private BinarySnapshotReader(ByteBuffer buffer, int recordCount) {
+        this.buffer = buffer;
+        this.recordCount = recordCount;
+        this.nextRecord = BinarySnapshotWriter.HEADER_SIZE;
+        this.fieldPositions = new int[16];
+    }
+
+    public static BinarySnapshotReader open(Path path, int schemaVersion) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + path.getFileName());
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated snapshot: " + path.getFileName());
+                }
+            }
+            buffer.flip();
+        }
+
+        if (buffer.limit() < BinarySnapshotWriter.HEADER_SIZE
+                || buffer.getInt(0) != BinarySnapshotWriter.MAGIC) {
+            throw new IOException("Not a snapshot file: " + path.getFileName());
+        }
+        if (buffer.getShort(4) != BinarySnapshotWriter.FORMAT_VERSION || buffer.getShort(6) != schemaVersion) {
+            throw new IOException("Unsupported snapshot version in " + path.getFileName());
+        }
+
+        int recordCount = buffer.getInt(8);
+        int position = BinarySnapshotWriter.HEADER_SIZE;
+        for (int i = 0; i < recordCount; i++) {
+            if (position + 4 > buffer.limit()) {
+                throw new IOException("Truncated snapshot: " + path.getFileName());
+            }
+            int length = buffer.getInt(position);
+            if (length < 2 || length > buffer.limit() - position - 4) {
+                throw new IOException("Truncated snapshot: " + path.getFileName());
+            }
+            if (!hasValidFields(buffer, position + 4, position + 4 + length)) {
+                throw new IOException("Corrupt snapshot record " + i + " in " + path.getFileName());
+            }
+            position += 4 + length;
+        }
+
+        return new BinarySnapshotReader(buffer, recordCount);
+    }
+
+    private static boolean hasValidFields(ByteBuffer buffer, int start, int end) {
+        int fieldCount = buffer.getShort(start);
+        int position = start + 2;
+        for (int i = 0; i < fieldCount; i++) {
+            if (position >= end) {
+                return false;
+            }
+            switch (buffer.get(position)) {
+                case BinarySnapshotWriter.TAG_STRING:
+                    if (position + 5 > end) {
+                        return false;
+                    }
+                    int length = buffer.getInt(position + 1);
+                    if (length < 0 || length > end - position - 5) {
+                        return false;
+                    }
+                    position += 5 + length;
+                    break;
+                case BinarySnapshotWriter.TAG_INT:
+                    position += 5;
+                    break;
+                case BinarySnapshotWriter.TAG_DOUBLE:
+                    position += 9;
+                    break;
+                case BinarySnapshotWriter.TAG_EMPTY:
+                    position += 1;
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return fieldCount >= 0 && position == end;
+    }
+
+    public boolean next() {
+        if (recordsRead == recordCount) {
+            return false;
+        }
+
+        int length = buffer.getInt(nextRecord);
+        int position = nextRecord + 4;
+        fieldCount = buffer.getShort(position);
+        position += 2;
+
+        if (fieldPositions.length < fieldCount) {
+            fieldPositions = Arrays.copyOf(fieldPositions, Math.max(fieldCount, fieldPositions.length * 2));
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            fieldPositions[i] = position;
+            switch (buffer.get(position)) {
+                case BinarySnapshotWriter.TAG_STRING:
+                    position += 5 + buffer.getInt(position + 1);
+                    break;
+                case BinarySnapshotWriter.TAG_INT:
+                    position += 5;
+                    break;
+                case BinarySnapshotWriter.TAG_DOUBLE:
+                    position += 9;
+                    break;
+                default:
+                    position += 1;
+                    break;
+            }
+        }
+
+        nextRecord += 4 + length;
+        recordsRead++;
+        return true;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    @Override
+    public boolean isEmpty(int index) {
+        return index >= fieldCount || buffer.get(fieldPositions[index]) == BinarySnapshotWriter.TAG_EMPTY;
+    }
+
+    @Override
+    public String getString(int index) {
+        if (index >= fieldCount) {
+            return "";
+        }
+        int position = fieldPositions[index];
+        switch (buffer.get(position)) {
+            case BinarySnapshotWriter.TAG_STRING:
+                int length = buffer.getInt(position + 1);
+                byte[] bytes = new byte[length];
+                buffer.duplicate().position(position + 5).get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            case BinarySnapshotWriter.TAG_INT:
+                return String.valueOf(buffer.getInt(position + 1));
+            case BinarySnapshotWriter.TAG_DOUBLE:
+                return String.valueOf(buffer.getDouble(position + 1));
+            default:
+                return "";
+        }
+    }
+
+    @Override
+    public int getInt(int index) {
+        checkIndex(index);
+        int position = fieldPositions[index];
+        switch (buffer.get(position)) {
+            case BinarySnapshotWriter.TAG_INT:
+                return buffer.getInt(position + 1);
+            case BinarySnapshotWriter.TAG_DOUBLE:
+                return (int) buffer.getDouble(position + 1);
+            default:
+                return Integer.parseInt(getString(index));
+        }
+    }
+
+    @Override
+    public double getDouble(int index) {
+        checkIndex(index);
+        int position = fieldPositions[index];
+        switch (buffer.get(position)) {
+            case BinarySnapshotWriter.TAG_DOUBLE:
+                return buffer.getDouble(position + 1);
+            case BinarySnapshotWriter.TAG_INT:
+                return buffer.getInt(position + 1);
+            default:
+                return Double.parseDouble(getString(index));
+        }
+    }
+
+    @Override
+    public <E extends Enum<E>> E getEnum(int index, Class<E> type) {
+        String value = getString(index);
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value) || constant.toString().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + type.getSimpleName() + " for " + value);
+    }
+
+    @Override
+    public String getRecord() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = getString(i);
+        }
+        return FileHandler.formatCSVLine(fields);
+    }
+
+    private void checkIndex(int index) {
+        if (index >= fieldCount) {
+            throw new IllegalArgumentException("Missing field " + index + " in record " + recordsRead);
+        }
+    }
+}
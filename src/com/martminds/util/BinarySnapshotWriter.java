@@ -0,0 +1,109 @@
+package com.martminds.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+public class BinarySnapshotWriter implements RecordWriter {
+    public static final int MAGIC = 0x4D4D5342;
+    public static final short FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 12;
+
+    static final byte TAG_EMPTY = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_INT = 2;
+    static final byte TAG_DOUBLE = 3;
+
+    private final short schemaVersion;
+    private final ByteArrayOutputStream body;
+    private final ByteArrayOutputStream recordBytes;
+    private final DataOutputStream record;
+    private int recordCount;
+    private short fieldCount;
+
+    public BinarySnapshotWriter(int schemaVersion) {
+        this.schemaVersion = (short) schemaVersion;
+        this.body = new ByteArrayOutputStream();
+        this.recordBytes = new ByteArrayOutputStream();
+        this.record = new DataOutputStream(recordBytes);
+    }
+
+    @Override
+    public BinarySnapshotWriter addString(String value) {
+        try {
+            if (value == null || value.isEmpty()) {
+                record.writeByte(TAG_EMPTY);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                record.writeByte(TAG_STRING);
+                record.writeInt(bytes.length);
+                record.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+        return this;
+    }
+
+    @Override
+    public BinarySnapshotWriter addInt(int value) {
+        try {
+            record.writeByte(TAG_INT);
+            record.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+        return this;
+    }
+
+    @Override
+    public BinarySnapshotWriter addDouble(double value) {
+        try {
+            record.writeByte(TAG_DOUBLE);
+            record.writeDouble(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+        return this;
+    }
+
+    @Override
+    public BinarySnapshotWriter addEnum(Enum<?> value) {
+        return addString(value != null ? value.name() : null);
+    }
+
+    @Override
+    public void endRecord() {
+        try {
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeInt(recordBytes.size() + 2);
+            out.writeShort(fieldCount);
+            recordBytes.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recordBytes.reset();
+        fieldCount = 0;
+        recordCount++;
+    }
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream(HEADER_SIZE + body.size());
+        try {
+            DataOutputStream out = new DataOutputStream(snapshot);
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeShort(schemaVersion);
+            out.writeInt(recordCount);
+            body.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return snapshot.toByteArray();
+    }
+}
@@ -0,0 +1,313 @@
+package com.martminds.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class CSVReader implements Closeable, DataRecord {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private static final int START_FIELD = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int bufferPos;
+    private int bufferLimit;
+
+    private char[] record;
+    private int recordLength;
+    private int[] fieldStart;
+    private int[] fieldEnd;
+    private int fieldCount;
+    private long lineNumber;
+
+    public CSVReader(Path path) throws IOException {
+        this(Channels.newReader(FileChannel.open(path, StandardOpenOption.READ),
+                StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+    }
+
+    public CSVReader(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.record = new char[256];
+        this.fieldStart = new int[16];
+        this.fieldEnd = new int[16];
+    }
+
+    public boolean next() throws IOException {
+        while (readRecord()) {
+            if (fieldCount > 1 || fieldEnd[0] > fieldStart[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean readRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        int state = START_FIELD;
+        int start = 0;
+        boolean consumed = false;
+
+        while (true) {
+            if (bufferPos >= bufferLimit) {
+                bufferLimit = reader.read(buffer, 0, buffer.length);
+                bufferPos = 0;
+                if (bufferLimit <= 0) {
+                    bufferLimit = 0;
+                    if (!consumed) {
+                        return false;
+                    }
+                    endField(start, state == UNQUOTED);
+                    return true;
+                }
+            }
+
+            char c = buffer[bufferPos++];
+            consumed = true;
+
+            if (c == '\n' && state != QUOTED) {
+                lineNumber++;
+                endField(start, state == UNQUOTED);
+                return true;
+            }
+            if (c == '\r' && state != QUOTED) {
+                continue;
+            }
+
+            switch (state) {
+                case START_FIELD:
+                    if (c == '"') {
+                        state = QUOTED;
+                    } else if (c == ',') {
+                        endField(start, false);
+                        start = recordLength;
+                    } else if (c != ' ' && c != '\t') {
+                        append(c);
+                        state = UNQUOTED;
+                    }
+                    break;
+                case UNQUOTED:
+                    if (c == ',') {
+                        endField(start, true);
+                        start = recordLength;
+                        state = START_FIELD;
+                    } else {
+                        append(c);
+                    }
+                    break;
+                case QUOTED:
+                    if (c == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        append(c);
+                    }
+                    break;
+                default:
+                    if (c == '"') {
+                        append('"');
+                        state = QUOTED;
+                    } else if (c == ',') {
+                        endField(start, false);
+                        start = recordLength;
+                        state = START_FIELD;
+                    } else if (c != ' ' && c != '\t') {
+                        append(c);
+                        state = UNQUOTED;
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordLength++] = c;
+    }
+
+    private void endField(int start, boolean trimTrailing) {
+        int end = recordLength;
+        if (trimTrailing) {
+            while (end > start && record[end - 1] <= ' ') {
+                end--;
+            }
+        }
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean isEmpty(int index) {
+        return index >= fieldCount || fieldEnd[index] == fieldStart[index];
+    }
+
+    @Override
+    public String getString(int index) {
+        if (index >= fieldCount) {
+            return "";
+        }
+        return new String(record, fieldStart[index], fieldEnd[index] - fieldStart[index]);
+    }
+
+    @Override
+    public int getInt(int index) {
+        checkIndex(index);
+        int pos = fieldStart[index];
+        int end = fieldEnd[index];
+        boolean negative = false;
+
+        if (pos < end && (record[pos] == '-' || record[pos] == '+')) {
+            negative = record[pos] == '-';
+            pos++;
+        }
+        if (pos == end) {
+            throw new NumberFormatException("Invalid integer: \"" + getString(index) + "\"");
+        }
+
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = record[pos] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid integer: \"" + getString(index) + "\"");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Integer out of range: \"" + getString(index) + "\"");
+            }
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer out of range: \"" + getString(index) + "\"");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        checkIndex(index);
+        int pos = fieldStart[index];
+        int end = fieldEnd[index];
+        boolean negative = false;
+
+        if (pos < end && (record[pos] == '-' || record[pos] == '+')) {
+            negative = record[pos] == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        boolean fastPath = pos < end;
+
+        for (; pos < end && fastPath; pos++) {
+            char c = record[pos];
+            if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                seenDigit = true;
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+                fastPath = digits <= 15 && fractionDigits < POWERS_OF_TEN.length;
+            } else {
+                fastPath = false;
+            }
+        }
+
+        if (!fastPath || !seenDigit) {
+            return Double.parseDouble(getString(index));
+        }
+
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    @Override
+    public <E extends Enum<E>> E getEnum(int index, Class<E> type) {
+        checkIndex(index);
+        for (E constant : type.getEnumConstants()) {
+            if (fieldEqualsIgnoreCase(index, constant.name()) || fieldEqualsIgnoreCase(index, constant.toString())) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + type.getSimpleName() + " for " + getString(index));
+    }
+
+    public boolean fieldEqualsIgnoreCase(int index, String value) {
+        if (index >= fieldCount) {
+            return false;
+        }
+        int start = fieldStart[index];
+        int length = fieldEnd[index] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = record[start + i];
+            char b = value.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getRecord() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = getString(i);
+        }
+        return FileHandler.formatCSVLine(fields);
+    }
+
+    private void checkIndex(int index) {
+        if (index >= fieldCount) {
+            throw new IllegalArgumentException("Missing field " + index + " in line " + lineNumber);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
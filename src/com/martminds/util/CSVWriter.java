@@ -0,0 +1,48 @@
+package com.martminds.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSVWriter implements RecordWriter {
+    private final List<String> lines;
+    private final List<String> fields;
+
+    public CSVWriter() {
+        this.lines = new ArrayList<>();
+        this.fields = new ArrayList<>();
+    }
+
+    @Override
+    public CSVWriter addString(String value) {
+        fields.add(value != null ? value : "");
+        return this;
+    }
+
+    @Override
+    public CSVWriter addInt(int value) {
+        fields.add(String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public CSVWriter addDouble(double value) {
+        fields.add(String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public CSVWriter addEnum(Enum<?> value) {
+        fields.add(value != null ? value.name() : "");
+        return this;
+    }
+
+    @Override
+    public void endRecord() {
+        lines.add(FileHandler.formatCSVLine(fields.toArray(new String[0])));
+        fields.clear();
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+}
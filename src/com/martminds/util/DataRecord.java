@@ -0,0 +1,17 @@
+package com.martminds.util;
+
+public interface DataRecord {
+    int getFieldCount();
+
+    boolean isEmpty(int index);
+
+    String getString(int index);
+
+    int getInt(int index);
+
+    double getDouble(int index);
+
+    <E extends Enum<E>> E getEnum(int index, Class<E> type);
+
+    String getRecord();
+}
@@ -1,20 +1,111 @@
 package com.martminds.util;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class FileHandler {
     private static final String DATA_DIR = "data/";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String COMMIT_SUFFIX = ".commit";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String JOURNAL_HEADER = "FILES ";
+    private static final String JOURNAL_TERMINATOR = "END";
+    private static final Map<String, LineIndex> lineIndexes = new ConcurrentHashMap<>();
+    private static final Map<String, InvertedIndex<Integer>> searchIndexes = new ConcurrentHashMap<>();
+    private static final Map<String, LineIndex> searchIndexSources = new ConcurrentHashMap<>();
+    private static boolean commitsRecovered = false;
+    private static volatile boolean binarySnapshots = false;
+    private static volatile boolean directorySyncSupported = true;
+
+    public static void setBinarySnapshots(boolean enable) {
+        binarySnapshots = enable;
+    }
+
+    public static boolean isBinarySnapshotsEnabled() {
+        return binarySnapshots;
+    }
 
     public static void ensureDataDirectoryExists() {
         File directory = new File(DATA_DIR);
         if (!directory.exists()) {
             directory.mkdirs();
         }
+        recoverPendingCommits();
+    }
+
+    public static synchronized void recoverPendingCommits() {
+        if (commitsRecovered) {
+            return;
+        }
+        commitsRecovered = true;
+
+        File[] journals = new File(DATA_DIR).listFiles((dir, name) -> name.endsWith(COMMIT_SUFFIX));
+        if (journals != null) {
+            for (File journal : journals) {
+                try {
+                    List<String> filenames = readJournal(journal);
+                    if (filenames == null) {
+                        Files.delete(journal.toPath());
+                        Logger.warning("Discarded incomplete write journal: " + journal.getName());
+                        continue;
+                    }
+                    for (String filename : filenames) {
+                        Path temp = new File(DATA_DIR + filename + TEMP_SUFFIX).toPath();
+                        if (Files.exists(temp)) {
+                            moveIntoPlace(temp, new File(DATA_DIR + filename).toPath());
+                        }
+                    }
+                    syncDataDirectory();
+                    Files.delete(journal.toPath());
+                    Logger.warning("Completed interrupted write: " + journal.getName());
+                } catch (IOException e) {
+                    Logger.error("Error recovering write " + journal.getName() + " - " + e.getMessage());
+                }
+            }
+        }
+
+        File[] orphans = new File(DATA_DIR).listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX));
+        if (orphans != null) {
+            for (File orphan : orphans) {
+                orphan.delete();
+            }
+        }
+    }
+
+    private static List<String> readJournal(File journal) throws IOException {
+        List<String> lines = Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8);
+        if (lines.size() < 2 || !lines.get(0).startsWith(JOURNAL_HEADER)
+                || !JOURNAL_TERMINATOR.equals(lines.get(lines.size() - 1))) {
+            return null;
+        }
+        int expected;
+        try {
+            expected = Integer.parseInt(lines.get(0).substring(JOURNAL_HEADER.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        List<String> filenames = lines.subList(1, lines.size() - 1);
+        if (filenames.size() != expected || filenames.contains("")) {
+            return null;
+        }
+        return filenames;
     }
 
     public static List<String> readFile(String filename) {
+        recoverPendingCommits();
         List<String> lines = new ArrayList<>();
         String filepath = DATA_DIR + filename;
 
@@ -32,39 +123,201 @@ public class FileHandler {
         return lines;
     }
 
+    public static boolean forEachLine(String filename, Consumer<String> consumer) {
+        recoverPendingCommits();
+        String filepath = DATA_DIR + filename;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filepath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+            }
+            return true;
+        } catch (FileNotFoundException e) {
+            Logger.info("File not found: " + filename + " (will be created on first write)");
+        } catch (IOException e) {
+            Logger.error("Error reading file: " + filename + " - " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    public static boolean forEachRecord(String filename, Consumer<CSVReader> consumer) {
+        recoverPendingCommits();
+        File file = new File(DATA_DIR + filename);
+        if (!file.exists()) {
+            Logger.info("File not found: " + filename + " (will be created on first write)");
+            return false;
+        }
+
+        try (CSVReader reader = new CSVReader(file.toPath())) {
+            while (reader.next()) {
+                consumer.accept(reader);
+            }
+            return true;
+        } catch (IOException e) {
+            Logger.error("Error reading file: " + filename + " - " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean forEachSnapshotRecord(String snapshotFile, int schemaVersion, String sourceFile,
+            Consumer<DataRecord> consumer) {
+        recoverPendingCommits();
+        File snapshot = new File(DATA_DIR + snapshotFile);
+        File source = new File(DATA_DIR + sourceFile);
+        if (!snapshot.exists() || (source.exists() && source.lastModified() > snapshot.lastModified())) {
+            return false;
+        }
+
+        BinarySnapshotReader reader;
+        try {
+            reader = BinarySnapshotReader.open(snapshot.toPath(), schemaVersion);
+        } catch (IOException e) {
+            Logger.warning("Ignoring snapshot " + snapshotFile + " - " + e.getMessage());
+            return false;
+        }
+
+        try {
+            while (reader.next()) {
+                consumer.accept(reader);
+            }
+        } catch (RuntimeException e) {
+            Logger.warning("Abandoning snapshot " + snapshotFile + " - " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
     public static boolean writeFile(String filename, List<String> lines) {
+        Map<String, List<String>> files = new LinkedHashMap<>();
+        files.put(filename, lines);
+        return writeFiles(files);
+    }
+
+    public static boolean writeFiles(Map<String, List<String>> files) {
+        return writeFiles(files, new LinkedHashMap<>());
+    }
+
+    public static boolean writeFiles(Map<String, List<String>> textFiles, Map<String, byte[]> binaryFiles) {
         ensureDataDirectoryExists();
-        String filepath = DATA_DIR + filename;
+        List<String> filenames = new ArrayList<>(textFiles.keySet());
+        filenames.addAll(binaryFiles.keySet());
+
+        try {
+            for (Map.Entry<String, List<String>> file : textFiles.entrySet()) {
+                writeDurably(new File(DATA_DIR + file.getKey() + TEMP_SUFFIX), file.getValue());
+            }
+            for (Map.Entry<String, byte[]> file : binaryFiles.entrySet()) {
+                writeDurably(new File(DATA_DIR + file.getKey() + TEMP_SUFFIX), file.getValue());
+            }
+        } catch (IOException e) {
+            Logger.error("Error writing files: " + filenames + " - " + e.getMessage());
+            for (String filename : filenames) {
+                new File(DATA_DIR + filename + TEMP_SUFFIX).delete();
+            }
+            return false;
+        }
+
+        File journal = new File(DATA_DIR + filenames.get(0) + COMMIT_SUFFIX);
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filepath))) {
+        try {
+            if (filenames.size() > 1) {
+                List<String> journalLines = new ArrayList<>();
+                journalLines.add(JOURNAL_HEADER + filenames.size());
+                journalLines.addAll(filenames);
+                journalLines.add(JOURNAL_TERMINATOR);
+                writeDurably(journal, journalLines);
+                syncDataDirectory();
+            }
+            for (String filename : filenames) {
+                moveIntoPlace(new File(DATA_DIR + filename + TEMP_SUFFIX).toPath(),
+                        new File(DATA_DIR + filename).toPath());
+            }
+            syncDataDirectory();
+            Files.deleteIfExists(journal.toPath());
+            return true;
+        } catch (IOException e) {
+            Logger.error("Error committing files: " + filenames + " - " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeDurably(File file, List<String> lines) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file);
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
             for (String line : lines) {
                 writer.write(line);
                 writer.newLine();
             }
-            return true;
+            writer.flush();
+            out.getFD().sync();
+        }
+    }
+
+    private static void writeDurably(File file, byte[] data) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+            out.flush();
+            out.getFD().sync();
+        }
+    }
+
+    private static void syncDataDirectory() {
+        if (!directorySyncSupported) {
+            return;
+        }
+        try (FileChannel directory = FileChannel.open(new File(DATA_DIR).toPath(), StandardOpenOption.READ)) {
+            directory.force(true);
         } catch (IOException e) {
-            Logger.error("Error writing file: " + filename + " - " + e.getMessage());
-            return false;
+            directorySyncSupported = false;
+            Logger.warning("Data directory sync not supported on this platform: " + e.getMessage());
+        }
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
     public static boolean appendToFile(String filename, String line) {
+        return appendLines(filename, Collections.singletonList(line));
+    }
+
+    public static boolean appendLines(String filename, List<String> lines) {
         ensureDataDirectoryExists();
-        String filepath = DATA_DIR + filename;
+        File file = new File(DATA_DIR + filename);
+        boolean created = !file.exists();
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filepath, true))) {
-            writer.write(line);
-            writer.newLine();
-            return true;
+        try (FileOutputStream out = new FileOutputStream(file, true);
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            out.getFD().sync();
         } catch (IOException e) {
             Logger.error("Error appending to file: " + filename + " - " + e.getMessage());
             return false;
         }
+
+        if (created) {
+            syncDataDirectory();
+        }
+        return true;
     }
 
     public static boolean deleteFile(String filename) {
         String filepath = DATA_DIR + filename;
         File file = new File(filepath);
+        lineIndexes.remove(filename);
+        searchIndexes.remove(filename);
+        searchIndexSources.remove(filename);
+        new File(filepath + INDEX_SUFFIX).delete();
 
         if (file.exists()) {
             return file.delete();
@@ -87,7 +340,12 @@ public class FileHandler {
             char c = line.charAt(i);
 
             if (c == '"') {
-                inQuotes = !inQuotes;
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    currentField.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
             } else if (c == ',' && !inQuotes) {
                 fields.add(currentField.toString().trim());
                 currentField = new StringBuilder();
@@ -124,100 +382,81 @@ public class FileHandler {
         return writeFile(filename, new ArrayList<>());
     }
 
-    public static boolean backupFile(String filename) {
-        String filepath = DATA_DIR + filename;
-        String backupPath = DATA_DIR + filename + ".bak";
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filepath));
-                BufferedWriter writer = new BufferedWriter(new FileWriter(backupPath))) {
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.write(line);
-                writer.newLine();
-            }
-            return true;
-        } catch (IOException e) {
-            Logger.error("Error backing up file: " + filename + " - " + e.getMessage());
-            return false;
-        }
+    public static String readLine(String filename, int lineNumber) {
+        List<String> lines = readLines(filename, lineNumber, 1);
+        return lines.isEmpty() ? null : lines.get(0);
     }
 
-    public static boolean restoreFromBackup(String filename) {
-        String filepath = DATA_DIR + filename;
-        String backupPath = DATA_DIR + filename + ".bak";
-
-        File backupFile = new File(backupPath);
-        if (!backupFile.exists()) {
-            Logger.error("Backup file not found: " + filename + ".bak");
-            return false;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(backupPath));
-                BufferedWriter writer = new BufferedWriter(new FileWriter(filepath))) {
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.write(line);
-                writer.newLine();
-            }
-            return true;
+    public static List<String> readLines(String filename, int firstLine, int count) {
+        try {
+            return lineIndex(filename).readLines(firstLine, count);
         } catch (IOException e) {
-            Logger.error("Error restoring from backup: " + filename + " - " + e.getMessage());
-            return false;
+            Logger.error("Error reading line from file: " + filename + " - " + e.getMessage());
         }
-    }
 
-    public static String readLine(String filename, int lineNumber) {
-        String filepath = DATA_DIR + filename;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filepath))) {
-            String line;
-            int currentLine = 0;
+        return new ArrayList<>();
+    }
 
-            while ((line = reader.readLine()) != null) {
-                currentLine++;
-                if (currentLine == lineNumber) {
-                    return line;
-                }
-            }
+    public static int countLines(String filename) {
+        try {
+            return lineIndex(filename).getLineCount();
         } catch (IOException e) {
-            Logger.error("Error reading line from file: " + filename + " - " + e.getMessage());
+            Logger.error("Error counting lines in file: " + filename + " - " + e.getMessage());
         }
 
-        return null;
+        return 0;
     }
 
-    public static int countLines(String filename) {
-        String filepath = DATA_DIR + filename;
-        int count = 0;
+    private static LineIndex lineIndex(String filename) throws IOException {
+        recoverPendingCommits();
+        LineIndex index = lineIndexes.get(filename);
+        if (index != null && index.isCurrent()) {
+            return index;
+        }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filepath))) {
-            while (reader.readLine() != null) {
-                count++;
-            }
-        } catch (IOException e) {
-            Logger.error("Error counting lines in file: " + filename + " - " + e.getMessage());
+        Path path = Path.of(DATA_DIR + filename);
+        if (!Files.exists(path)) {
+            lineIndexes.remove(filename);
+            throw new FileNotFoundException(DATA_DIR + filename);
         }
 
-        return count;
+        index = LineIndex.load(path, Path.of(DATA_DIR + filename + INDEX_SUFFIX));
+        lineIndexes.put(filename, index);
+        return index;
     }
 
     public static List<String> searchInFile(String filename, String searchText) {
         List<String> matchingLines = new ArrayList<>();
-        String filepath = DATA_DIR + filename;
+        for (int lineNumber : searchLineNumbers(filename, searchText)) {
+            String line = readLine(filename, lineNumber);
+            if (line != null) {
+                matchingLines.add(line);
+            }
+        }
+        return matchingLines;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filepath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains(searchText)) {
-                    matchingLines.add(line);
+    public static List<Integer> searchLineNumbers(String filename, String searchText) {
+        try {
+            LineIndex lines = lineIndex(filename);
+            InvertedIndex<Integer> index = searchIndexes.get(filename);
+            if (index == null || searchIndexSources.get(filename) != lines) {
+                index = new InvertedIndex<>();
+                int lineNumber = 1;
+                for (String line : lines.readLines(1, lines.getLineCount())) {
+                    index.put(lineNumber++, line);
                 }
+                searchIndexes.put(filename, index);
+                searchIndexSources.put(filename, lines);
             }
+
+            List<Integer> lineNumbers = new ArrayList<>(index.search(searchText));
+            Collections.sort(lineNumbers);
+            return lineNumbers;
         } catch (IOException e) {
             Logger.error("Error searching in file: " + filename + " - " + e.getMessage());
         }
 
-        return matchingLines;
+        return new ArrayList<>();
     }
 }
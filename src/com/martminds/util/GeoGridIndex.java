@@ -0,0 +1,182 @@
+package com.martminds.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+public class GeoGridIndex<K> {
+    private final double cellDegrees;
+    private final Map<K, Position> positions;
+    private final Map<Long, Set<K>> cells;
+
+    private static final class Position {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private Position(double latitude, double longitude, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    public static final class Match<K> {
+        private final K key;
+        private final double distanceKm;
+
+        private Match(K key, double distanceKm) {
+            this.key = key;
+            this.distanceKm = distanceKm;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    public GeoGridIndex(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 10) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 10 degrees");
+        }
+        this.cellDegrees = cellDegrees;
+        this.positions = new ConcurrentHashMap<>();
+        this.cells = new ConcurrentHashMap<>();
+    }
+
+    public void put(K key, double latitude, double longitude) {
+        if (!ValidationUtil.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        long cell = cellOf(latitude, longitude);
+        positions.compute(key, (k, previous) -> {
+            if (previous == null || previous.cell != cell) {
+                if (previous != null) {
+                    removeFromCell(previous.cell, k);
+                }
+                addToCell(cell, k);
+            }
+            return new Position(latitude, longitude, cell);
+        });
+    }
+
+    public void remove(K key) {
+        positions.computeIfPresent(key, (k, previous) -> {
+            removeFromCell(previous.cell, k);
+            return null;
+        });
+    }
+
+    private void addToCell(long cell, K key) {
+        cells.compute(cell, (c, keys) -> {
+            if (keys == null) {
+                keys = ConcurrentHashMap.newKeySet();
+            }
+            keys.add(key);
+            return keys;
+        });
+    }
+
+    private void removeFromCell(long cell, K key) {
+        cells.computeIfPresent(cell, (c, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    public boolean contains(K key) {
+        return positions.containsKey(key);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public List<Match<K>> nearest(double latitude, double longitude, int limit, double maxDistanceKm,
+            Predicate<? super K> filter) {
+        List<Match<K>> results = new ArrayList<>();
+        if (limit <= 0 || positions.isEmpty()) {
+            return results;
+        }
+
+        PriorityQueue<Match<K>> best = new PriorityQueue<>(limit + 1,
+                Comparator.<Match<K>>comparingDouble(Match::getDistanceKm).reversed());
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        double farthestLatitude = Math.min(89.0,
+                Math.abs(latitude) + maxDistanceKm / GeoUtil.KM_PER_DEGREE_LATITUDE);
+        double ringWidthKm = cellDegrees * Math.min(GeoUtil.KM_PER_DEGREE_LATITUDE,
+                GeoUtil.kmPerDegreeLongitude(farthestLatitude));
+        int maxRing = (int) Math.min(Math.ceil(maxDistanceKm / ringWidthKm) + 1, Math.ceil(360.0 / cellDegrees));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c += step) {
+                    collect(cellKey(r, c), latitude, longitude, limit, maxDistanceKm, filter, best);
+                }
+            }
+
+            if (best.size() == limit && best.peek().getDistanceKm() <= ring * ringWidthKm) {
+                break;
+            }
+            if (positions.size() <= best.size()) {
+                break;
+            }
+        }
+
+        results.addAll(best);
+        results.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return results;
+    }
+
+    private void collect(long cell, double latitude, double longitude, int limit, double maxDistanceKm,
+            Predicate<? super K> filter, PriorityQueue<Match<K>> best) {
+        Set<K> keys = cells.get(cell);
+        if (keys == null) {
+            return;
+        }
+        for (K key : keys) {
+            Position position = positions.get(key);
+            if (position == null || (filter != null && !filter.test(key))) {
+                continue;
+            }
+            double distance = GeoUtil.distanceKm(latitude, longitude, position.latitude, position.longitude);
+            if (distance > maxDistanceKm) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Match<>(key, distance));
+            } else if (distance < best.peek().getDistanceKm()) {
+                best.poll();
+                best.add(new Match<>(key, distance));
+            }
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return cellKey(row(latitude), column(longitude));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
@@ -0,0 +1,31 @@
+package com.martminds.util;
+
+public final class GeoPoint {
+    private final double latitude;
+    private final double longitude;
+
+    public GeoPoint(double latitude, double longitude) {
+        if (!ValidationUtil.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double distanceKm(GeoPoint other) {
+        return GeoUtil.distanceKm(latitude, longitude, other.latitude, other.longitude);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.6f,%.6f", latitude, longitude);
+    }
+}
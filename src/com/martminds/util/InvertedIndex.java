@@ -0,0 +1,124 @@
+package com.martminds.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class InvertedIndex<K> {
+    private final ConcurrentNavigableMap<String, Set<K>> postings;
+    private final Map<K, Set<String>> documents;
+
+    public InvertedIndex() {
+        this.postings = new ConcurrentSkipListMap<>();
+        this.documents = new ConcurrentHashMap<>();
+    }
+
+    public void put(K key, Object... values) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            tokens.addAll(tokenize(value.toString()));
+            if (value instanceof Enum && !((Enum<?>) value).name().equals(value.toString())) {
+                tokens.addAll(tokenize(((Enum<?>) value).name()));
+            }
+        }
+
+        documents.compute(key, (k, previous) -> {
+            if (previous != null) {
+                for (String token : previous) {
+                    if (!tokens.contains(token)) {
+                        unpost(token, k);
+                    }
+                }
+            }
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(k);
+            }
+            return tokens;
+        });
+    }
+
+    public void remove(K key) {
+        documents.computeIfPresent(key, (k, previous) -> {
+            for (String token : previous) {
+                unpost(token, k);
+            }
+            return null;
+        });
+    }
+
+    private void unpost(String token, K key) {
+        Set<K> keys = postings.get(token);
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    public void clear() {
+        documents.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public Set<K> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Set<K>> matches = new ArrayList<>();
+        for (String term : terms) {
+            Set<K> keys = matchPrefix(term);
+            if (keys.isEmpty()) {
+                return Collections.emptySet();
+            }
+            matches.add(keys);
+        }
+
+        matches.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<K> result = new LinkedHashSet<>(matches.get(0));
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+
+    private Set<K> matchPrefix(String term) {
+        Set<K> keys = new LinkedHashSet<>();
+        for (Set<K> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            keys.addAll(posting);
+        }
+        return keys;
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,164 @@
+package com.martminds.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LineIndex {
+    private static final int MAGIC = 0x4D4D4C49;
+    private static final int READ_CHUNK_SIZE = 1024 * 1024;
+
+    private final Path file;
+    private final long fileLength;
+    private final long lastModified;
+    private final long[] offsets;
+    private final int lineCount;
+
+    private LineIndex(Path file, long fileLength, long lastModified, long[] offsets, int lineCount) {
+        this.file = file;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.offsets = offsets;
+        this.lineCount = lineCount;
+    }
+
+    public static LineIndex load(Path file, Path sidecar) throws IOException {
+        long length = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        if (Files.exists(sidecar)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(sidecar)))) {
+                if (in.readInt() == MAGIC && in.readLong() == length && in.readLong() == modified) {
+                    int count = in.readInt();
+                    long[] offsets = new long[count];
+                    for (int i = 0; i < count; i++) {
+                        offsets[i] = in.readLong();
+                    }
+                    return new LineIndex(file, length, modified, offsets, count);
+                }
+            } catch (IOException e) {
+                Logger.warning("Rebuilding line index for " + file.getFileName() + " - " + e.getMessage());
+            }
+        }
+
+        LineIndex index = build(file, length, modified);
+        index.save(sidecar);
+        return index;
+    }
+
+    private static LineIndex build(Path file, long length, long modified) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_SIZE);
+            boolean atLineStart = true;
+            long position = 0;
+            while (position < length) {
+                buffer.clear();
+                if (buffer.remaining() > length - position) {
+                    buffer.limit((int) (length - position));
+                }
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (atLineStart) {
+                        if (count == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, count * 2);
+                        }
+                        offsets[count++] = position + i;
+                    }
+                    atLineStart = buffer.get(i) == '\n';
+                }
+                position += read;
+            }
+        }
+
+        return new LineIndex(file, length, modified, offsets, count);
+    }
+
+    private void save(Path sidecar) {
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeInt(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                out.writeLong(offsets[i]);
+            }
+        } catch (IOException e) {
+            Logger.warning("Could not save line index for " + file.getFileName() + " - " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.warning("Could not save line index for " + file.getFileName() + " - " + e.getMessage());
+        }
+    }
+
+    public boolean isCurrent() {
+        try {
+            return Files.size(file) == fileLength && Files.getLastModifiedTime(file).toMillis() == lastModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public List<String> readLines(int firstLine, int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        int from = Math.max(firstLine, 1) - 1;
+        int to = (int) Math.min(lineCount, (long) from + Math.max(count, 0));
+        if (from >= to) {
+            return lines;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = from; i < to; i++) {
+                long start = offsets[i];
+                long end = i + 1 < lineCount ? offsets[i + 1] : fileLength;
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Line " + (i + 1) + " of " + file.getFileName() + " is too long");
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new IOException(file.getFileName() + " was truncated while reading");
+                    }
+                }
+                int length = buffer.limit();
+                if (length > 0 && buffer.get(length - 1) == '\n') {
+                    length--;
+                }
+                if (length > 0 && buffer.get(length - 1) == '\r') {
+                    length--;
+                }
+                lines.add(new String(buffer.array(), 0, length, StandardCharsets.UTF_8));
+            }
+        }
+
+        return lines;
+    }
+}
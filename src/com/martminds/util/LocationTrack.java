@@ -0,0 +1,103 @@
+package com.martminds.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LocationTrack {
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] timestamps;
+    private final long[] receivedAt;
+    private final AtomicBoolean dirty;
+    private int head;
+    private int size;
+
+    public LocationTrack(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.receivedAt = new long[capacity];
+        this.dirty = new AtomicBoolean();
+        this.head = 0;
+        this.size = 0;
+    }
+
+    public synchronized boolean append(double latitude, double longitude, long timestamp, long receivedTime) {
+        if (size > 0 && timestamp < timestamps[latestIndex()]) {
+            return false;
+        }
+        latitudes[head] = latitude;
+        longitudes[head] = longitude;
+        timestamps[head] = timestamp;
+        receivedAt[head] = receivedTime;
+        head = (head + 1) % latitudes.length;
+        if (size < latitudes.length) {
+            size++;
+        }
+        return true;
+    }
+
+    private int latestIndex() {
+        return (head - 1 + latitudes.length) % latitudes.length;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return latitudes.length;
+    }
+
+    public synchronized double getLatestLatitude() {
+        requireFix();
+        return latitudes[latestIndex()];
+    }
+
+    public synchronized double getLatestLongitude() {
+        requireFix();
+        return longitudes[latestIndex()];
+    }
+
+    public synchronized long getLatestTimestamp() {
+        requireFix();
+        return timestamps[latestIndex()];
+    }
+
+    public synchronized long getLatestReceivedAt() {
+        requireFix();
+        return receivedAt[latestIndex()];
+    }
+
+    private void requireFix() {
+        if (size == 0) {
+            throw new IllegalStateException("No location recorded");
+        }
+    }
+
+    public synchronized int copyRecent(double[] latitudeOut, double[] longitudeOut, long[] timestampOut) {
+        int count = Math.min(size, Math.min(latitudeOut.length, Math.min(longitudeOut.length, timestampOut.length)));
+        int start = (head - count + latitudes.length) % latitudes.length;
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % latitudes.length;
+            latitudeOut[i] = latitudes[index];
+            longitudeOut[i] = longitudes[index];
+            timestampOut[i] = timestamps[index];
+        }
+        return count;
+    }
+
+    public boolean markDirty() {
+        return dirty.compareAndSet(false, true);
+    }
+
+    public void clearDirty() {
+        dirty.set(false);
+    }
+}
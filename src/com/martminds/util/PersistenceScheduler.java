@@ -0,0 +1,121 @@
+package com.martminds.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class PersistenceScheduler {
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final Map<String, BooleanSupplier> savers;
+    private final Map<String, Object> flushLocks;
+    private final Set<String> dirty;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> flushTask;
+    private volatile long flushIntervalMs;
+    private volatile boolean shutDown;
+
+    private static class Holder {
+        private static final PersistenceScheduler INSTANCE = new PersistenceScheduler();
+    }
+
+    private PersistenceScheduler() {
+        this.savers = new ConcurrentHashMap<>();
+        this.flushLocks = new ConcurrentHashMap<>();
+        this.dirty = ConcurrentHashMap.newKeySet();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "persistence-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shutDown = false;
+        setFlushInterval(DEFAULT_FLUSH_INTERVAL_MS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "persistence-shutdown"));
+    }
+
+    public static PersistenceScheduler getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void register(String name, BooleanSupplier saver) {
+        flushLocks.putIfAbsent(name, new Object());
+        savers.put(name, saver);
+    }
+
+    public void markDirty(String name) {
+        if (!savers.containsKey(name)) {
+            Logger.warning("No saver registered for: " + name);
+            return;
+        }
+        dirty.add(name);
+        if (flushIntervalMs <= 0 || shutDown) {
+            flush(name);
+        }
+    }
+
+    public boolean isDirty(String name) {
+        return dirty.contains(name);
+    }
+
+    public void flush() {
+        for (String name : savers.keySet()) {
+            flush(name);
+        }
+    }
+
+    private void flush(String name) {
+        synchronized (flushLocks.get(name)) {
+            if (dirty.remove(name)) {
+                try {
+                    if (!savers.get(name).getAsBoolean()) {
+                        dirty.add(name);
+                        Logger.error("Failed to flush " + name + ", will retry");
+                    }
+                } catch (RuntimeException e) {
+                    dirty.add(name);
+                    Logger.error("Error flushing " + name + " - " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public synchronized void setFlushInterval(long millis) {
+        this.flushIntervalMs = millis;
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (millis > 0 && !shutDown) {
+            flushTask = executor.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public long getFlushInterval() {
+        return flushIntervalMs;
+    }
+
+    public synchronized void shutdown() {
+        if (shutDown) {
+            return;
+        }
+        shutDown = true;
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Logger.warning("Background flush still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,13 @@
+package com.martminds.util;
+
+public interface RecordWriter {
+    RecordWriter addString(String value);
+
+    RecordWriter addInt(int value);
+
+    RecordWriter addDouble(double value);
+
+    RecordWriter addEnum(Enum<?> value);
+
+    void endRecord();
+}
@@ -4,26 +4,32 @@ import com.martminds.model.user.User;
 import com.martminds.enums.UserRole;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 public class Session {
-    private static Session instance;
+    private final String sessionId;
+    private volatile State state;
+    private volatile long lastAccessMillis;
 
-    private User currentUser;
-    private String sessionId;
-    private LocalDateTime loginTimestamp;
+    private static final class State {
+        private final User currentUser;
+        private final LocalDateTime loginTimestamp;
 
-    private Session() {
-        this.currentUser = null;
-        this.sessionId = null;
-        this.loginTimestamp = null;
+        private State(User currentUser, LocalDateTime loginTimestamp) {
+            this.currentUser = currentUser;
+            this.loginTimestamp = loginTimestamp;
+        }
+    }
+
+    private static final State LOGGED_OUT = new State(null, null);
+
+    Session(String sessionId) {
+        this.sessionId = sessionId;
+        this.state = LOGGED_OUT;
+        this.lastAccessMillis = System.currentTimeMillis();
     }
 
     public static Session getInstance() {
-        if (instance == null) {
-            instance = new Session();
-        }
-        return instance;
+        return SessionRegistry.getInstance().current();
     }
 
     @Deprecated
@@ -31,46 +37,45 @@ public class Session {
         return getInstance();
     }
 
-    public void login(User user) {
+    public synchronized void login(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Cannot login null user");
         }
 
-        if (this.currentUser != null) {
+        if (state.currentUser != null) {
             Logger.warning("User already logged in. Logging out previous user.");
             logout();
         }
 
-        this.currentUser = user;
-        this.sessionId = UUID.randomUUID().toString();
-        this.loginTimestamp = DateTimeUtil.now();
+        this.state = new State(user, DateTimeUtil.now());
+        touch();
 
         Logger.info("User logged in: " + user.getEmail() + " (Role: " + user.getRole() + ")");
     }
 
-    public void logout() {
-        if (currentUser != null) {
-            Logger.info("User logged out: " + currentUser.getEmail());
+    public synchronized void logout() {
+        if (state.currentUser != null) {
+            Logger.info("User logged out: " + state.currentUser.getEmail());
         }
 
-        this.currentUser = null;
-        this.sessionId = null;
-        this.loginTimestamp = null;
+        this.state = LOGGED_OUT;
     }
 
     public boolean isLoggedIn() {
-        return currentUser != null;
+        return state.currentUser != null;
     }
 
     public User getCurrentUser() {
-        return currentUser;
+        return state.currentUser;
     }
 
     public UserRole getCurrentUserRole() {
+        User currentUser = state.currentUser;
         return currentUser != null ? currentUser.getRole() : null;
     }
 
     public String getCurrentUserId() {
+        User currentUser = state.currentUser;
         return currentUser != null ? currentUser.getUserId() : null;
     }
 
@@ -79,19 +84,19 @@ public class Session {
     }
 
     public LocalDateTime getLoginTimestamp() {
-        return loginTimestamp;
+        return state.loginTimestamp;
     }
 
     public boolean isCustomer() {
-        return isLoggedIn() && currentUser.getRole() == UserRole.CUSTOMER;
+        return getCurrentUserRole() == UserRole.CUSTOMER;
     }
 
     public boolean isDriver() {
-        return isLoggedIn() && currentUser.getRole() == UserRole.DRIVER;
+        return getCurrentUserRole() == UserRole.DRIVER;
     }
 
     public boolean isAdmin() {
-        return isLoggedIn() && currentUser.getRole() == UserRole.ADMIN;
+        return getCurrentUserRole() == UserRole.ADMIN;
     }
 
     public void requireLogin() {
@@ -101,8 +106,11 @@ public class Session {
     }
 
     public void requireRole(UserRole role) {
-        requireLogin();
-        if (currentUser.getRole() != role) {
+        UserRole currentRole = getCurrentUserRole();
+        if (currentRole == null) {
+            throw new IllegalStateException("You must be logged in to perform this action");
+        }
+        if (currentRole != role) {
             throw new IllegalStateException("Access denied. Required role: " + role);
         }
     }
@@ -120,30 +128,43 @@ public class Session {
     }
 
     public long getSessionDurationMinutes() {
-        if (!isLoggedIn() || loginTimestamp == null) {
+        return getSessionDurationMinutes(state);
+    }
+
+    private long getSessionDurationMinutes(State current) {
+        if (current.currentUser == null || current.loginTimestamp == null) {
             return 0;
         }
 
         try {
             LocalDateTime currentTime = DateTimeUtil.now();
-            return DateTimeUtil.minutesBetween(loginTimestamp, currentTime);
+            return DateTimeUtil.minutesBetween(current.loginTimestamp, currentTime);
         } catch (Exception e) {
             Logger.error("Failed to calculate session duration: " + e.getMessage());
             return 0;
         }
     }
 
+    void touch() {
+        this.lastAccessMillis = System.currentTimeMillis();
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
     public String getSessionInfo() {
-        if (!isLoggedIn()) {
+        State current = state;
+        if (current.currentUser == null) {
             return "No active session";
         }
 
         return String.format("Session ID: %s\nUser: %s (%s)\nRole: %s\nLogged in at: %s\nDuration: %d minutes",
                 sessionId,
-                currentUser.getName(),
-                currentUser.getEmail(),
-                currentUser.getRole(),
-                loginTimestamp,
-                getSessionDurationMinutes());
+                current.currentUser.getName(),
+                current.currentUser.getEmail(),
+                current.currentUser.getRole(),
+                current.loginTimestamp,
+                getSessionDurationMinutes(current));
     }
 }
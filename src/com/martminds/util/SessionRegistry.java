@@ -0,0 +1,145 @@
+package com.martminds.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class SessionRegistry {
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 30 * 60 * 1000;
+    private static final long REAPER_INTERVAL_MS = 60 * 1000;
+
+    private final Map<String, Session> sessions;
+    private final ThreadLocal<Session> currentSession;
+    private final Session consoleSession;
+    private final ScheduledExecutorService reaper;
+    private volatile long idleTimeoutMs;
+
+    private static class Holder {
+        private static final SessionRegistry INSTANCE = new SessionRegistry();
+    }
+
+    private SessionRegistry() {
+        this.sessions = new ConcurrentHashMap<>();
+        this.currentSession = new ThreadLocal<>();
+        this.consoleSession = new Session(UUID.randomUUID().toString());
+        this.idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+        this.reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reaper.scheduleWithFixedDelay(this::expireIdleSessions, REAPER_INTERVAL_MS, REAPER_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static SessionRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public Session createSession() {
+        Session session = new Session(UUID.randomUUID().toString());
+        sessions.put(session.getSessionId(), session);
+        return session;
+    }
+
+    public Session getSession(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return null;
+        }
+        if (isExpired(session)) {
+            expire(session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    public void removeSession(String sessionId) {
+        Session session = sessionId == null ? null : sessions.remove(sessionId);
+        if (session != null) {
+            session.logout();
+        }
+    }
+
+    public Session current() {
+        Session session = currentSession.get();
+        return session != null ? session : consoleSession;
+    }
+
+    public Session bind(Session session) {
+        Session previous = currentSession.get();
+        if (session == null) {
+            currentSession.remove();
+        } else {
+            session.touch();
+            currentSession.set(session);
+        }
+        return previous;
+    }
+
+    public void unbind(Session previous) {
+        if (previous == null) {
+            currentSession.remove();
+        } else {
+            currentSession.set(previous);
+        }
+    }
+
+    public <T> T callWithSession(Session session, Callable<T> task) throws Exception {
+        Session previous = bind(session);
+        try {
+            return task.call();
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    public int expireIdleSessions() {
+        List<Session> expired = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            if (isExpired(session)) {
+                expired.add(session);
+            }
+        }
+        for (Session session : expired) {
+            expire(session);
+        }
+        if (!expired.isEmpty()) {
+            Logger.info("Expired " + expired.size() + " idle sessions");
+        }
+        return expired.size();
+    }
+
+    private boolean isExpired(Session session) {
+        long timeout = idleTimeoutMs;
+        return timeout > 0 && System.currentTimeMillis() - session.getLastAccessMillis() > timeout;
+    }
+
+    private void expire(Session session) {
+        if (sessions.remove(session.getSessionId(), session)) {
+            session.logout();
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    public void setIdleTimeout(long millis) {
+        this.idleTimeoutMs = millis;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeoutMs;
+    }
+}
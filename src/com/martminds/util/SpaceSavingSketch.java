@@ -0,0 +1,112 @@
+package com.martminds.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class SpaceSavingSketch<K extends Comparable<K>> {
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final TreeSet<Counter<K>> byCount;
+
+    private static final class Counter<K extends Comparable<K>> implements Comparable<Counter<K>> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        private Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        @Override
+        public int compareTo(Counter<K> other) {
+            int result = Long.compare(count, other.count);
+            return result != 0 ? result : key.compareTo(other.key);
+        }
+    }
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+        this.byCount = new TreeSet<>();
+    }
+
+    public synchronized void offer(K key, long increment) {
+        if (key == null || increment <= 0) {
+            return;
+        }
+
+        Counter<K> current = counters.get(key);
+        if (current != null) {
+            replace(current, new Counter<>(key, current.count + increment, current.error));
+        } else if (counters.size() < capacity) {
+            replace(null, new Counter<>(key, increment, 0));
+        } else {
+            Counter<K> evicted = byCount.first();
+            counters.remove(evicted.key);
+            replace(evicted, new Counter<>(key, evicted.count + increment, evicted.count));
+        }
+    }
+
+    private void replace(Counter<K> previous, Counter<K> next) {
+        if (previous != null) {
+            byCount.remove(previous);
+        }
+        byCount.add(next);
+        counters.put(next.key, next);
+    }
+
+    public synchronized void mergeInto(SpaceSavingSketch<K> target) {
+        for (Counter<K> counter : counters.values()) {
+            target.add(counter.key, counter.count, counter.error);
+        }
+    }
+
+    private synchronized void add(K key, long count, long error) {
+        Counter<K> current = counters.get(key);
+        if (current != null) {
+            replace(current, new Counter<>(key, current.count + count, current.error + error));
+            return;
+        }
+        replace(null, new Counter<>(key, count, error));
+        if (counters.size() > capacity) {
+            Counter<K> evicted = byCount.pollFirst();
+            counters.remove(evicted.key);
+        }
+    }
+
+    public synchronized long estimate(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter != null ? counter.count : 0;
+    }
+
+    public synchronized long maxError(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter != null ? counter.error : byCount.isEmpty() ? 0 : byCount.first().count;
+    }
+
+    public synchronized Map<K, Long> top(int limit) {
+        Map<K, Long> top = new LinkedHashMap<>();
+        for (Counter<K> counter : byCount.descendingSet()) {
+            if (top.size() >= limit) {
+                break;
+            }
+            top.put(counter.key, counter.count);
+        }
+        return top;
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
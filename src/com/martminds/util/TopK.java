@@ -0,0 +1,50 @@
+package com.martminds.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class TopK<T> {
+    private final int capacity;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    public TopK(int capacity, Comparator<? super T> order) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        if (order == null) {
+            throw new IllegalArgumentException("Comparator cannot be null");
+        }
+        this.capacity = capacity;
+        this.order = order;
+        this.heap = new PriorityQueue<>(capacity + 1, order.reversed());
+    }
+
+    public void add(T item) {
+        if (heap.size() < capacity) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    public TopK<T> merge(TopK<T> other) {
+        for (T item : other.heap) {
+            add(item);
+        }
+        return this;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public List<T> toList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(order);
+        return items;
+    }
+}
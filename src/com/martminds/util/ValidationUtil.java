@@ -28,6 +28,10 @@ public class ValidationUtil {
         return POSTAL_CODE_PATTERN.matcher(postalCode).matches();
     }
 
+    public static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90.0 && latitude <= 90.0 && longitude >= -180.0 && longitude <= 180.0;
+    }
+
     public static boolean isValidPassword(String password) {
         if (password == null || password.length() < 8) {
             return false;